@@ -0,0 +1,36 @@
+package numberle.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the model benchmarks with the GC profiler on (allocation rate and bytes allocated per operation),
+ * and writes the results as JSON, so that runs of different versions can be compared by a script.
+ * Any JMH command line option can be given and overrides these defaults, for example a benchmark regex,
+ * "-rf csv" or "-rff other.json".
+ * Run it from the AOOPCW directory, where equations.txt is.
+ * Usage: java numberle.bench.BenchmarkMain [JMH options]
+ */
+public class BenchmarkMain {
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class);
+        // Options set on the builder win over the parent ones, so only set the defaults the user did not give
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            options.result("jmh-result.json");
+        }
+        if (commandLine.getIncludes().isEmpty()) {
+            options.include(ModelBenchmark.class.getName());
+        }
+        new Runner(options.build()).run();
+    }
+}
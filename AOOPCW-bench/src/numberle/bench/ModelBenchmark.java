@@ -0,0 +1,179 @@
+package numberle.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the NumberleModel hot paths: processInput, evaluateExpression, getUnusedCharacters,
+ * getColorCharacters and initialize (which includes generateTargetEquation).
+ * Guesses cover the realistic cases of a game: valid, winning, not equal, no '=' sign, invalid symbols
+ * and invalid length. The target is "1+2+3=6" unless a benchmark draws it at random.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelBenchmark {
+    // One guess of each kind against the target "1+2+3=6"
+    static final String VALID = "2+3*2=8";
+    static final String WINNING = "1+2+3=6";
+    static final String NOT_EQUAL = "1+2+3=7";
+    static final String NO_EQUAL = "12=12=1";
+    static final String INVALID_SYMBOLS = "1++2=33";
+    static final String INVALID_LENGTH = "1+2=3";
+
+    static String guess(String kind) {
+        switch (kind) {
+            case "valid":
+                return VALID;
+            case "winning":
+                return WINNING;
+            case "notEqual":
+                return NOT_EQUAL;
+            case "noEqual":
+                return NO_EQUAL;
+            case "invalidSymbols":
+                return INVALID_SYMBOLS;
+            case "invalidLength":
+                return INVALID_LENGTH;
+            default:
+                throw new IllegalArgumentException(kind);
+        }
+    }
+
+    /**
+     * A model and one guess, for the calls that do not change the game state.
+     */
+    @State(Scope.Thread)
+    public static class Expression {
+        @Param({"valid", "winning", "notEqual", "noEqual", "invalidSymbols"})
+        public String kind;
+        Object model;
+        String guess;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Throwable {
+            model = ModelHandles.newModel(false);
+            guess = guess(kind);
+        }
+    }
+
+    /**
+     * A model and a rejected guess: processInput returns before using up an attempt, so it can be repeated.
+     */
+    @State(Scope.Thread)
+    public static class Rejected {
+        @Param({"invalidLength", "noEqual", "invalidSymbols", "notEqual"})
+        public String kind;
+        Object model;
+        String guess;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Throwable {
+            model = ModelHandles.newModel(false);
+            guess = guess(kind);
+        }
+    }
+
+    /**
+     * A model part-way through a game, with keyboard hints to report.
+     */
+    @State(Scope.Thread)
+    public static class MidGame {
+        Object model;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Throwable {
+            model = ModelHandles.newModel(false);
+            for (String guess : new String[]{VALID, "4-1*3=1", "9/3+5=8"}) {
+                ModelHandles.PROCESS_INPUT.invoke(model, guess); // Only the hints are needed, invoke drops the code
+            }
+        }
+    }
+
+    /**
+     * A model whose games have the target "1+2+3=6", so every guess of a played game has the same result.
+     */
+    @State(Scope.Thread)
+    public static class FixedGame {
+        Object model;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Throwable {
+            model = ModelHandles.newModel(false);
+        }
+    }
+
+    /**
+     * A model for the benchmarks that start new games, with a fixed or a random target.
+     */
+    @State(Scope.Thread)
+    public static class NewGame {
+        @Param({"false", "true"})
+        public boolean random;
+        Object model;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Throwable {
+            model = ModelHandles.newModel(random);
+        }
+    }
+
+    @Benchmark
+    public int evaluateExpression(Expression state) throws Throwable {
+        return (int) ModelHandles.EVALUATE_EXPRESSION.invokeExact(state.model, state.guess);
+    }
+
+    @Benchmark
+    public int processInputRejected(Rejected state) throws Throwable {
+        return (int) ModelHandles.PROCESS_INPUT.invokeExact(state.model, state.guess);
+    }
+
+    /**
+     * Plays a whole game: a new game, then a valid guess, a guess of the wrong length, a guess whose sides
+     * are not equal, a guess with invalid symbols, another valid guess and the winning guess.
+     * The target is always "1+2+3=6", so the game is the same every time and ends with the winning guess.
+     */
+    @Benchmark
+    public int processInputGame(FixedGame state) throws Throwable {
+        Object model = state.model;
+        ModelHandles.INITIALIZE.invokeExact(model);
+        int result = (int) ModelHandles.PROCESS_INPUT.invokeExact(model, VALID);
+        result += (int) ModelHandles.PROCESS_INPUT.invokeExact(model, INVALID_LENGTH);
+        result += (int) ModelHandles.PROCESS_INPUT.invokeExact(model, NOT_EQUAL);
+        result += (int) ModelHandles.PROCESS_INPUT.invokeExact(model, INVALID_SYMBOLS);
+        result += (int) ModelHandles.PROCESS_INPUT.invokeExact(model, "4-1*3=1");
+        result += (int) ModelHandles.PROCESS_INPUT.invokeExact(model, WINNING);
+        return result;
+    }
+
+    @Benchmark
+    public List<?> getUnusedCharacters(MidGame state) throws Throwable {
+        return (List<?>) ModelHandles.GET_UNUSED_CHARACTERS.invokeExact(state.model);
+    }
+
+    @Benchmark
+    public String getColorCharacters(MidGame state) throws Throwable {
+        return (String) ModelHandles.GET_COLOR_CHARACTERS.invokeExact(state.model);
+    }
+
+    @Benchmark
+    public Object initialize(NewGame state) throws Throwable {
+        ModelHandles.INITIALIZE.invokeExact(state.model);
+        return state.model;
+    }
+}
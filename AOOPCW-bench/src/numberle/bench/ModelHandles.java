@@ -0,0 +1,65 @@
+package numberle.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+
+/**
+ * The ModelHandles class gives the benchmarks access to NumberleModel.
+ * The game classes live in the default package, which JMH does not accept for benchmark classes and which
+ * cannot be imported from a named package, so the model is reached through method handles instead.
+ * The handles are static final, so the JIT compiler inlines invokeExact calls and adds no measurable cost.
+ */
+final class ModelHandles {
+    static final MethodHandle NEW_MODEL;
+    static final MethodHandle INITIALIZE;
+    static final MethodHandle PROCESS_INPUT;
+    static final MethodHandle EVALUATE_EXPRESSION;
+    static final MethodHandle GET_UNUSED_CHARACTERS;
+    static final MethodHandle GET_COLOR_CHARACTERS;
+    static final MethodHandle SET_RANDOM;
+
+    static {
+        try {
+            Class<?> model = Class.forName("NumberleModel");
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            NEW_MODEL = lookup.findConstructor(model, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+            INITIALIZE = virtual(lookup, model, "initialize", MethodType.methodType(void.class));
+            PROCESS_INPUT = virtual(lookup, model, "processInput", MethodType.methodType(int.class, String.class));
+            EVALUATE_EXPRESSION = virtual(lookup, model, "evaluateExpression",
+                    MethodType.methodType(int.class, String.class));
+            GET_UNUSED_CHARACTERS = virtual(lookup, model, "getUnusedCharacters", MethodType.methodType(List.class));
+            GET_COLOR_CHARACTERS = virtual(lookup, model, "getColorCharacters", MethodType.methodType(String.class));
+            SET_RANDOM = virtual(lookup, model, "setRandom", MethodType.methodType(void.class, boolean.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private ModelHandles() {
+    }
+
+    /**
+     * Finds a public instance method of the model and adapts its receiver type to Object.
+     */
+    private static MethodHandle virtual(MethodHandles.Lookup lookup, Class<?> model, String name, MethodType type)
+            throws ReflectiveOperationException {
+        MethodHandle handle = lookup.findVirtual(model, name, type);
+        return handle.asType(handle.type().changeParameterType(0, Object.class));
+    }
+
+    /**
+     * Creates a model. Models trace nothing by default, so the benchmarks do not measure any output.
+     *
+     * @param random Whether the target is drawn at random from the dictionary or is "1+2+3=6".
+     * @return A new, initialized NumberleModel.
+     */
+    static Object newModel(boolean random) throws Throwable {
+        Object model = (Object) NEW_MODEL.invokeExact();
+        SET_RANDOM.invokeExact(model, random);
+        INITIALIZE.invokeExact(model);
+        return model;
+    }
+}
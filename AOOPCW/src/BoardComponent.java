@@ -0,0 +1,257 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * The BoardComponent class paints the board of guesses, one tile per character of each attempt, as a single
+ * component instead of one text field per tile.
+ * Each tile is drawn from a pre-rendered image of its state (empty, typed or one of the feedback colors) and
+ * symbol, rendered once per tile size and screen scale, so painting is one image copy per tile.
+ * Changing a tile repaints only that tile, and painting skips the tiles outside the clip.
+ * Revealing the colors of a row flips its tiles one after the other, driven by a javax.swing.Timer.
+ * All methods must be called on the event dispatch thread.
+ */
+public class BoardComponent extends JComponent {
+    /** The background colors of the tiles, indexed by the Feedback colors. */
+    static final Color[] FEEDBACK_COLORS = {
+            Color.decode("#2FCEA5"), Color.decode("#F79A6F"), Color.decode("#A4AEC4")};
+    static final Color EMPTY_COLOR = Color.decode("#e6e9ed");
+    static final Color BORDER_COLOR = Color.decode("#DCE1ED");
+    static final Color TEXT_COLOR = Color.decode("#5A6376");
+
+    // Tile states: the Feedback colors, then empty and typed
+    private static final int EMPTY = 3;
+    private static final int TYPED = 4;
+    private static final int STATES = 5;
+    private static final int GAP = 5;
+    private static final int PADDING = 10;
+    private static final int RADIUS = 10;
+    private static final int REVEAL_DELAY = 80; // Milliseconds between the flips of two tiles of a row
+    private static final int REVEAL_FLIP = 240; // Milliseconds a tile takes to flip
+
+    private final int rows;
+    private final int columns;
+    private final int tileWidth;
+    private final int tileHeight;
+    private final Font font;
+    private final char[][] symbols; // 0 for none
+    private final byte[][] states;
+    // tiles[state][symbol index + 1], index 0 being no symbol, rendered at tileScale
+    private final BufferedImage[][] tiles = new BufferedImage[STATES][Symbols.COUNT + 1];
+    private double tileScale;
+
+    private final Timer revealTimer = new Timer(15, e -> revealStep());
+    private int revealRow = -1;
+    private long revealStart;
+
+    /**
+     * Constructs an empty board.
+     *
+     * @param rows       The number of attempts.
+     * @param columns    The number of characters of the equations.
+     * @param tileWidth  The width of a tile.
+     * @param tileHeight The height of a tile.
+     */
+    public BoardComponent(int rows, int columns, int tileWidth, int tileHeight) {
+        this.rows = rows;
+        this.columns = columns;
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        Font symbolFont = GameAssets.getDefault().getSymbolFont();
+        this.font = symbolFont.deriveFont(Math.min(symbolFont.getSize2D(), tileHeight * 2 / 3));
+        this.symbols = new char[rows][columns];
+        this.states = new byte[rows][columns];
+        for (byte[] row : states) {
+            Arrays.fill(row, (byte) EMPTY);
+        }
+        Dimension size = new Dimension(columns * (tileWidth + GAP) - GAP + 2 * PADDING,
+                rows * (tileHeight + GAP) - GAP + 2 * PADDING);
+        setPreferredSize(size);
+        setMinimumSize(size);
+        setMaximumSize(size);
+        // Opaque, so repainting a tile does not repaint the components behind the board
+        setOpaque(true);
+        setBackground(UIManager.getColor("Panel.background"));
+    }
+
+    /**
+     * Returns the symbol of a tile.
+     *
+     * @param row    The attempt.
+     * @param column The position in the equation.
+     * @return The symbol, or 0 if the tile is empty.
+     */
+    public char getSymbol(int row, int column) {
+        return symbols[row][column];
+    }
+
+    /**
+     * Types a symbol in a tile, or erases it.
+     *
+     * @param row    The attempt.
+     * @param column The position in the equation.
+     * @param symbol The symbol, or 0 to erase the tile.
+     */
+    public void setSymbol(int row, int column, char symbol) {
+        symbols[row][column] = symbol;
+        states[row][column] = (byte) (symbol == 0 ? EMPTY : TYPED);
+        repaint(tileBounds(row, column));
+    }
+
+    /**
+     * Shows the colors of a guess on its row, flipping the tiles one after the other.
+     * A reveal still running on another row is finished at once.
+     *
+     * @param row      The attempt.
+     * @param feedback The packed feedback of the guess, see Feedback.
+     */
+    public void reveal(int row, int feedback) {
+        finishReveal();
+        for (int column = 0; column < columns; column++) {
+            states[row][column] = (byte) Feedback.colorAt(feedback, column);
+        }
+        revealRow = row;
+        revealStart = System.nanoTime();
+        revealTimer.start();
+    }
+
+    /**
+     * Empties every tile, stopping any reveal.
+     */
+    public void clear() {
+        finishReveal();
+        for (int row = 0; row < rows; row++) {
+            Arrays.fill(symbols[row], (char) 0);
+            Arrays.fill(states[row], (byte) EMPTY);
+        }
+        repaint();
+    }
+
+    private void finishReveal() {
+        if (revealRow >= 0) {
+            revealTimer.stop();
+            repaint(rowBounds(revealRow));
+            revealRow = -1;
+        }
+    }
+
+    private void revealStep() {
+        Rectangle bounds = rowBounds(revealRow);
+        if (elapsedMillis() >= (columns - 1) * REVEAL_DELAY + REVEAL_FLIP) {
+            revealTimer.stop();
+            revealRow = -1;
+        }
+        repaint(bounds);
+    }
+
+    private long elapsedMillis() {
+        return (System.nanoTime() - revealStart) / 1_000_000;
+    }
+
+    private Rectangle tileBounds(int row, int column) {
+        Insets insets = getInsets();
+        int x = (getWidth() - getPreferredSize().width) / 2 + PADDING + insets.left;
+        int y = (getHeight() - getPreferredSize().height) / 2 + PADDING + insets.top;
+        return new Rectangle(x + column * (tileWidth + GAP), y + row * (tileHeight + GAP), tileWidth, tileHeight);
+    }
+
+    private Rectangle rowBounds(int row) {
+        return tileBounds(row, 0).union(tileBounds(row, columns - 1));
+    }
+
+    /**
+     * Paints the tiles that intersect the clip.
+     *
+     * @param g The Graphics context to paint on.
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g;
+        AffineTransform transform = g2.getTransform();
+        double scale = Math.max(transform.getScaleX(), transform.getScaleY());
+        if (scale != tileScale) {
+            // Moved to a screen of another scale: render the tiles again at the new scale
+            for (BufferedImage[] images : tiles) {
+                Arrays.fill(images, null);
+            }
+            tileScale = scale;
+        }
+        Rectangle clip = g.getClipBounds();
+        g.setColor(getBackground());
+        if (clip != null) {
+            g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        } else {
+            g.fillRect(0, 0, getWidth(), getHeight());
+        }
+        long elapsed = revealRow >= 0 ? elapsedMillis() : 0;
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                Rectangle bounds = tileBounds(row, column);
+                if (clip != null && !clip.intersects(bounds)) {
+                    continue;
+                }
+                if (row == revealRow) {
+                    paintFlip(g, row, column, bounds, elapsed - (long) column * REVEAL_DELAY);
+                } else {
+                    g.drawImage(tile(states[row][column], symbols[row][column]),
+                            bounds.x, bounds.y, tileWidth, tileHeight, null);
+                }
+            }
+        }
+    }
+
+    /**
+     * Paints a tile of the row being revealed: the typed tile shrinking to a line during the first half of the
+     * flip, then the colored tile growing back during the second half.
+     */
+    private void paintFlip(Graphics g, int row, int column, Rectangle bounds, long time) {
+        double progress = Math.max(0, Math.min(1, (double) time / REVEAL_FLIP));
+        int state = progress < 0.5 ? TYPED : states[row][column];
+        int height = (int) Math.round(tileHeight * Math.abs(1 - 2 * progress));
+        if (height > 0) {
+            g.drawImage(tile(state, symbols[row][column]), bounds.x, bounds.y + (tileHeight - height) / 2,
+                    tileWidth, height, null);
+        }
+    }
+
+    /**
+     * Returns the image of a tile, rendering it on first use.
+     */
+    private BufferedImage tile(int state, char symbol) {
+        int index = symbol == 0 ? 0 : Symbols.indexOf(symbol) + 1;
+        BufferedImage image = tiles[state][index];
+        if (image == null) {
+            image = renderTile(state, symbol);
+            tiles[state][index] = image;
+        }
+        return image;
+    }
+
+    private BufferedImage renderTile(int state, char symbol) {
+        double scale = tileScale > 0 ? tileScale : 1;
+        BufferedImage image = new BufferedImage((int) Math.ceil(tileWidth * scale),
+                (int) Math.ceil(tileHeight * scale), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2 = image.createGraphics();
+        g2.scale(scale, scale);
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        boolean revealed = state < EMPTY;
+        g2.setColor(revealed ? FEEDBACK_COLORS[state] : EMPTY_COLOR);
+        g2.fillRoundRect(0, 0, tileWidth - 1, tileHeight - 1, RADIUS, RADIUS);
+        g2.setColor(state == TYPED ? Color.GRAY : BORDER_COLOR);
+        g2.drawRoundRect(0, 0, tileWidth - 1, tileHeight - 1, RADIUS, RADIUS);
+        if (symbol != 0) {
+            g2.setFont(font);
+            g2.setColor(revealed ? Color.WHITE : TEXT_COLOR);
+            FontMetrics fm = g2.getFontMetrics();
+            String text = String.valueOf(symbol);
+            int x = (tileWidth - fm.stringWidth(text)) / 2;
+            int y = (tileHeight + fm.getAscent()) / 2 - fm.getLeading() - fm.getDescent() / 2;
+            g2.drawString(text, x, y);
+        }
+        g2.dispose();
+        return image;
+    }
+}
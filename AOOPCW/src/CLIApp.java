@@ -1,55 +1,92 @@
-import java.util.Scanner;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.util.function.LongConsumer;
 
 /**
  * The CLIApp class represents a Command-Line Interface (CLI) application for playing the Numberle game.
  * Users can interact with the game through the command line by entering their guesses for the equation.
  * It communicates with the NumberleModel to manage the game state and logic.
  * This class handles user input and displays game status and messages.
+ * The length of the equations and the number of attempts can be given on the command line.
+ * Usage: java CLIApp [equation length] [attempts]
  */
 
 public class CLIApp {
-    public static void main(String[] args) {
-        INumberleModel model = new NumberleModel();
+    public static void main(String[] args) throws IOException {
+        NumberleModel model = new NumberleModel();
+        if (args.length > 0) {
+            model.setEquationLength(Integer.parseInt(args[0]));
+        }
+        if (args.length > 1) {
+            model.setMaxAttempts(Integer.parseInt(args[1]));
+        }
+        model.setTraceSink(new ConsoleTraceSink(TraceLevel.DEBUG)); // Print the target and the feedback (flag2)
+        model.startNewGame();
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+        PrintWriter out = new PrintWriter(System.out, true);
+        play(model, in, out, nanos -> { });
+    }
 
-        try (Scanner scanner = new Scanner(System.in)) {
-            model.startNewGame();
-            System.out.println("\nWelcome to Numberle - CLI Version");
-            System.out.println("You have " + model.getRemainingAttempts() + " attempts to guess. The equation only have 7 characters.");
+    /**
+     * Plays one game with the line protocol of the command line: the guesses are read one per line from in,
+     * and the messages, unused characters, colours and attempts left are written to out.
+     * The game server uses the same protocol for each connection.
+     *
+     * @param model        A model with a game started.
+     * @param in           Where the guesses are read from.
+     * @param out          Where the messages are written to. It is flushed after each answer.
+     * @param requestNanos Told how long each guess took, from reading it to flushing the answer.
+     * @throws IOException If reading or writing fails.
+     * @ requires model != null && in != null && out != null && requestNanos != null
+     * @ ensures The game is over, or in has reached its end.
+     */
+    public static void play(INumberleModel model, BufferedReader in, PrintWriter out, LongConsumer requestNanos)
+            throws IOException {
+        out.println("\nWelcome to Numberle - CLI Version");
+        out.println("You have " + model.getRemainingAttempts() + " attempts to guess. The equation only have "
+                + model.getEquationLength() + " characters.");
 
-            while (!model.isGameOver()) {
-                System.out.println("Enter your guess: ");
-                String input = scanner.nextLine();
-                int result = model.processInput(input);
+        while (!model.isGameOver()) {
+            out.println("Enter your guess: ");
+            out.flush();
+            String input = in.readLine();
+            if (input == null) {
+                return; // End of input, the player has left
+            }
+            long start = System.nanoTime();
+            int result = model.processInput(input);
 
-                if (model.isGameOver()) {
-                    if (model.isGameWon()) {
-                        System.out.println("You won!!");
-                    } else {
-                        System.out.println("You Lost! The correct equation is: " + model.getTargetNumber());
-                    }
+            if (model.isGameOver()) {
+                if (model.isGameWon()) {
+                    out.println("You won!!");
                 } else {
-                    switch (result) {
-                        case 1:
-                            System.out.println("Invalid Input");
-                            break;
-                        case 2:
-                            System.out.println("No equal '=' sign.");
-                            break;
-                        case 3:
-                            System.out.println("There must be at least one '+-*/'.");
-                            break;
-                        case 4:
-                            System.out.println("The left side is not equal to the right.");
-                            break;
-                    }
-                    System.out.println("Unused characters: " + model.getUnusedCharacters());
+                    out.println("You Lost! The correct equation is: " + model.getTargetNumber());
+                }
+            } else {
+                switch (result) {
+                    case 1:
+                        out.println("Invalid Input");
+                        break;
+                    case 2:
+                        out.println("No equal '=' sign.");
+                        break;
+                    case 3:
+                        out.println("There must be at least one '+-*/'.");
+                        break;
+                    case 4:
+                        out.println("The left side is not equal to the right.");
+                        break;
+                }
+                out.println("Unused characters: " + model.getUnusedCharacters());
 
-                    System.out.println(model.getColorCharacters());
+                out.println(model.getColorCharacters());
 
-                    System.out.println("\nTry again. You have " + model.getRemainingAttempts() + " attempts left.");
-                }
+                out.println("\nTry again. You have " + model.getRemainingAttempts() + " attempts left.");
             }
+            out.flush();
+            requestNanos.accept(System.nanoTime() - start);
         }
     }
 }
-
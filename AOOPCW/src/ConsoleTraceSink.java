@@ -0,0 +1,73 @@
+import java.io.PrintStream;
+
+/**
+ * The ConsoleTraceSink class prints trace records on standard output as the game goes, in the format the model
+ * used to print for flag2: the target when a game starts, and one line per character of each scored guess.
+ * It writes on the calling thread, so it is meant for the single player CLI and GUI applications.
+ */
+public final class ConsoleTraceSink implements TraceSink {
+    private final TraceLevel level;
+    private final PrintStream out;
+
+    /**
+     * Creates a sink printing on standard output.
+     *
+     * @param level The most detailed level to print.
+     */
+    public ConsoleTraceSink(TraceLevel level) {
+        this(level, System.out);
+    }
+
+    public ConsoleTraceSink(TraceLevel level, PrintStream out) {
+        this.level = level;
+        this.out = out;
+    }
+
+    @Override
+    public boolean isEnabled(TraceLevel level) {
+        return this.level.includes(level);
+    }
+
+    @Override
+    public void gameStarted(String target) {
+        if (isEnabled(TraceLevel.INFO)) {
+            out.println(target); // Print target number (for debugging purposes(flag2))
+        }
+    }
+
+    @Override
+    public void guessScored(String guess, int feedback, int remainingAttempts) {
+        if (!isEnabled(TraceLevel.DEBUG)) {
+            return;
+        }
+        if (Feedback.isWin(feedback)) {
+            out.println();
+        } else {
+            for (int i = 0; i < guess.length(); i++) {
+                char c = guess.charAt(i);
+                switch (Feedback.colorAt(feedback, i)) {
+                    case Feedback.GREEN:
+                        out.println("Green: " + c + " is in right position, ");
+                        break;
+                    case Feedback.ORANGE:
+                        out.println("Orange: " + c + " is in wrong position, ");
+                        break;
+                    default:
+                        out.println("Gray: " + c + " is not in the equation, ");
+                        break;
+                }
+            }
+        }
+        out.println();
+    }
+
+    @Override
+    public void guessRejected(String guess, int reason) {
+        // The player is told why already
+    }
+
+    @Override
+    public void gameEnded(boolean won, String target, int remainingAttempts) {
+        // The player is told the outcome already
+    }
+}
@@ -0,0 +1,184 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The ConstraintIndex class is an inverted index over an EquationDictionary, used to find the equations that
+ * are still possible after some guesses without rescanning the equation strings.
+ * It holds one bitset (one bit per dictionary index) per (position, symbol) pair, set for the equations that
+ * have that symbol at that position, and one per (symbol, count) pair, set for the equations that contain
+ * the symbol at least that many times.
+ * The feedback of a guess translates into a few word-wide AND and AND NOT operations on a candidate bitset:
+ * green positions must match, other positions must not, and the green and orange occurrences of a symbol give
+ * its minimum count in the target, or its exact count when the symbol also has a gray occurrence.
+ * An index is immutable once built and can be shared between threads.
+ */
+public final class ConstraintIndex {
+    private final int size;
+    private final int length;
+    private final int words;
+    // positions[i][s]: equations with symbol s at position i
+    private final long[][][] positions;
+    // atLeast[s][k]: equations containing symbol s at least k times, for k from 1 to length
+    private final long[][][] atLeast;
+
+    /**
+     * Builds the index of a dictionary whose equations all have the same length.
+     *
+     * @param dictionary The dictionary to index.
+     */
+    public ConstraintIndex(EquationDictionary dictionary) {
+        this.size = dictionary.size();
+        this.length = dictionary.getEquationLength();
+        this.words = (size + 63) >>> 6;
+        this.positions = new long[length][Symbols.COUNT][words];
+        this.atLeast = new long[Symbols.COUNT][length + 2][words];
+        int[] counts = new int[Symbols.COUNT];
+        // Reused, so that the equations of a packed dictionary are not decoded to Strings
+        char[] equation = new char[length];
+        for (int e = 0; e < size; e++) {
+            if (dictionary.getLength(e) != length) {
+                throw new IllegalArgumentException("Equations must all have the same length: " + dictionary.get(e));
+            }
+            dictionary.getChars(e, equation);
+            long bit = 1L << e;
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < length; i++) {
+                int s = Symbols.indexOf(equation[i]);
+                if (s >= 0) {
+                    positions[i][s][e >>> 6] |= bit;
+                    counts[s]++;
+                }
+            }
+            for (int s = 0; s < Symbols.COUNT; s++) {
+                for (int k = 1; k <= counts[s]; k++) {
+                    atLeast[s][k][e >>> 6] |= bit;
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a bitset with every dictionary equation set, the candidates before the first guess.
+     *
+     * @return A new candidate bitset.
+     */
+    public long[] allCandidates() {
+        long[] candidates = new long[words];
+        Arrays.fill(candidates, -1L);
+        if ((size & 63) != 0) {
+            candidates[words - 1] = (1L << size) - 1;
+        }
+        return candidates;
+    }
+
+    /**
+     * Removes from a candidate bitset the equations that would not have given this feedback to this guess.
+     * The guess must have the length of the dictionary equations.
+     *
+     * @param candidates The candidate bitset, updated in place.
+     * @param guess      The guessed equation.
+     * @param feedback   The packed feedback of the guess, see Feedback.
+     */
+    public void filter(long[] candidates, CharSequence guess, int feedback) {
+        // Number of green or orange occurrences of each symbol, 4 bits per symbol, and the symbols seen gray
+        long present = 0;
+        int grayMask = 0;
+        int seenMask = 0;
+        for (int i = 0; i < length; i++) {
+            int s = Symbols.indexOf(guess.charAt(i));
+            int color = Feedback.colorAt(feedback, i);
+            if (s < 0) {
+                // No equation has this symbol, so it is gray and tells nothing
+                continue;
+            }
+            seenMask |= 1 << s;
+            if (color == Feedback.GREEN) {
+                and(candidates, positions[i][s]);
+            } else {
+                andNot(candidates, positions[i][s]);
+            }
+            if (color == Feedback.GRAY) {
+                grayMask |= 1 << s;
+            } else {
+                present += 1L << (s << 2);
+            }
+        }
+        for (int s = 0; s < Symbols.COUNT; s++) {
+            if ((seenMask & (1 << s)) == 0) {
+                continue;
+            }
+            int k = (int) (present >>> (s << 2)) & 0xF;
+            if (k > 0) {
+                and(candidates, atLeast[s][k]);
+            }
+            if ((grayMask & (1 << s)) != 0) {
+                // A gray occurrence means the target has exactly k of this symbol
+                andNot(candidates, atLeast[s][k + 1]);
+            }
+        }
+    }
+
+    /**
+     * Counts the equations set in a candidate bitset.
+     */
+    public static int count(long[] candidates) {
+        int count = 0;
+        for (long word : candidates) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Iterates over the equations set in a candidate bitset, in dictionary order.
+     * The bitset must not be changed while iterating.
+     *
+     * @param candidates The candidate bitset.
+     * @param dictionary The dictionary the index was built from.
+     * @return An iterator over the candidate equations.
+     */
+    public static Iterator<String> iterator(long[] candidates, EquationDictionary dictionary) {
+        return new Iterator<String>() {
+            private int word = 0;
+            private long bits = candidates.length > 0 ? candidates[0] : 0;
+
+            @Override
+            public boolean hasNext() {
+                while (bits == 0 && word < candidates.length - 1) {
+                    bits = candidates[++word];
+                }
+                return bits != 0;
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int index = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                return dictionary.get(index);
+            }
+        };
+    }
+
+    /**
+     * @return The length of the indexed equations.
+     */
+    public int length() {
+        return length;
+    }
+
+    private static void and(long[] candidates, long[] bits) {
+        for (int w = 0; w < candidates.length; w++) {
+            candidates[w] &= bits[w];
+        }
+    }
+
+    private static void andNot(long[] candidates, long[] bits) {
+        for (int w = 0; w < candidates.length; w++) {
+            candidates[w] &= ~bits[w];
+        }
+    }
+}
@@ -0,0 +1,105 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConstraintIndexTest {
+    private EquationDictionary dictionary;
+    private ConstraintIndex index;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        dictionary = EquationDictionary.load(Paths.get(EquationDictionary.DEFAULT_FILE));
+        index = new ConstraintIndex(dictionary);
+    }
+
+    /**
+     * Tests the filter of one guess against a brute force scan with Feedback.score, for every guess and target
+     * of equations.txt.
+     * -----------------------------------------------------------------------------------------------------------------
+     * @ ensures candidates == { e | Feedback.score(guess, e) == Feedback.score(guess, target) };
+     */
+    @Test
+    public void testFilterMatchesScore() {
+        for (int g = 0; g < dictionary.size(); g++) {
+            String guess = dictionary.get(g);
+            for (int t = 0; t < dictionary.size(); t++) {
+                int feedback = Feedback.score(guess, dictionary.get(t));
+                long[] candidates = index.allCandidates();
+                index.filter(candidates, guess, feedback);
+                assertArrayEquals(consistent(guess, feedback, allCandidates()), candidates,
+                        guess + " for " + dictionary.get(t));
+            }
+        }
+    }
+
+    /**
+     * Tests successive filters, with guesses that are not in the dictionary, against the brute force scan.
+     *
+     * @post After each guess the candidates are exactly the equations consistent with every feedback so far,
+     *       and always include the target.
+     */
+    @Test
+    public void testSuccessiveFilters() {
+        Random random = new Random(7);
+        EquationSpace space = EquationSpace.of(dictionary.getEquationLength());
+        for (int game = 0; game < 200; game++) {
+            String target = dictionary.get(random.nextInt(dictionary.size()));
+            long[] candidates = index.allCandidates();
+            long[] expected = allCandidates();
+            for (int turn = 0; turn < 3; turn++) {
+                String guess = random.nextBoolean() ? space.sample(random) : dictionary.get(
+                        random.nextInt(dictionary.size()));
+                int feedback = Feedback.score(guess, target);
+                index.filter(candidates, guess, feedback);
+                expected = consistent(guess, feedback, expected);
+                assertArrayEquals(expected, candidates, guess + " for " + target);
+            }
+            assertTrue(iteratorContains(candidates, target), target);
+            assertEquals(bruteForceCount(expected), ConstraintIndex.count(candidates));
+        }
+    }
+
+    private long[] allCandidates() {
+        long[] candidates = new long[(dictionary.size() + 63) >>> 6];
+        for (int e = 0; e < dictionary.size(); e++) {
+            candidates[e >>> 6] |= 1L << e;
+        }
+        return candidates;
+    }
+
+    /**
+     * Keeps the candidates that would have given this feedback to this guess, scoring each one.
+     */
+    private long[] consistent(String guess, int feedback, long[] candidates) {
+        long[] result = new long[candidates.length];
+        for (int e = 0; e < dictionary.size(); e++) {
+            if ((candidates[e >>> 6] & (1L << e)) != 0 && Feedback.score(guess, dictionary.get(e)) == feedback) {
+                result[e >>> 6] |= 1L << e;
+            }
+        }
+        return result;
+    }
+
+    private boolean iteratorContains(long[] candidates, String target) {
+        List<String> equations = new ArrayList<>();
+        ConstraintIndex.iterator(candidates, dictionary).forEachRemaining(equations::add);
+        return equations.contains(target);
+    }
+
+    private static int bruteForceCount(long[] candidates) {
+        int count = 0;
+        for (int e = 0; e < candidates.length * 64; e++) {
+            if ((candidates[e >>> 6] & (1L << e)) != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,337 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * The EquationDictionary class holds the list of target equations read from an equations file.
+ * The file is read once and the equations are kept in an immutable array, so a single dictionary can be
+ * shared by all NumberleModel instances and accessed by index in constant time without further disk I/O.
+ * A dictionary can also be read from a PackedDictionary file, which is memory-mapped: its equations stay packed
+ * outside the heap, and each is decoded when it is requested, so large dictionaries cost no String per equation.
+ * The default dictionary is loaded the first time it is requested, from "equations.bin" if it exists and is not
+ * older than "equations.txt", otherwise from "equations.txt".
+ */
+public final class EquationDictionary {
+    /** The file the default dictionary is loaded from. */
+    public static final String DEFAULT_FILE = "equations.txt";
+
+    private final String[] equations; // null if the dictionary is packed
+    private final PackedDictionary packed; // null unless read from a packed file
+    private final long loadTimeNanos;
+    private final long fileSize;
+    private final long checksum;
+    private volatile Map<String, Integer> indices; // Built on first call to indexOf
+    private volatile PackedIndex packedIndices; // Built on first call to indexOf, for a packed dictionary
+    private volatile ConstraintIndex constraintIndex; // Built on first call to getConstraintIndex
+
+    /**
+     * Holds the default dictionary, so that it is loaded lazily and exactly once by the class loader.
+     */
+    private static final class DefaultHolder {
+        static final EquationDictionary INSTANCE = loadDefault();
+    }
+
+    private EquationDictionary(String[] equations, long loadTimeNanos, long fileSize) {
+        this.equations = equations;
+        this.packed = null;
+        this.loadTimeNanos = loadTimeNanos;
+        this.fileSize = fileSize;
+        // CRC32 of the equations separated by '\n', used to check that derived files match this dictionary
+        CRC32 crc = new CRC32();
+        for (String equation : equations) {
+            crc.update(equation.getBytes(StandardCharsets.UTF_8));
+            crc.update('\n');
+        }
+        this.checksum = crc.getValue();
+    }
+
+    private EquationDictionary(PackedDictionary packed, long loadTimeNanos, long fileSize) {
+        this.equations = null;
+        this.packed = packed;
+        this.loadTimeNanos = loadTimeNanos;
+        this.fileSize = fileSize;
+        this.checksum = packed.getChecksum(); // Checked against the equations when the file was opened
+    }
+
+    /**
+     * Returns the dictionary shared by all models, loading it on first use from the packed or the text file.
+     * If the file cannot be read, the error is printed and an empty dictionary is returned.
+     *
+     * @return The shared default dictionary, never null.
+     */
+    public static EquationDictionary getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    private static EquationDictionary loadDefault() {
+        Path text = Paths.get(DEFAULT_FILE);
+        Path packedFile = Paths.get(PackedDictionary.DEFAULT_FILE);
+        try {
+            if (Files.exists(packedFile) && (!Files.exists(text)
+                    || Files.getLastModifiedTime(packedFile).compareTo(Files.getLastModifiedTime(text)) >= 0)) {
+                try {
+                    return loadPacked(packedFile);
+                } catch (IOException e) {
+                    // Fall back to the text file
+                    e.printStackTrace();
+                }
+            }
+            return load(text);
+        } catch (IOException e) {
+            // Handle file reading exceptions, the model then falls back to its default equation
+            e.printStackTrace();
+            return new EquationDictionary(new String[0], 0, 0);
+        }
+    }
+
+    /**
+     * Reads a dictionary from a file containing one equation per line. Blank lines are skipped.
+     *
+     * @param file The equations file to read.
+     * @return A new immutable dictionary.
+     * @throws IOException If the file cannot be read.
+     */
+    public static EquationDictionary load(Path file) throws IOException {
+        long start = System.nanoTime();
+        List<String> equations = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            // Read equations line by line from the file and add them to the list
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty()) {
+                    equations.add(line);
+                }
+            }
+        }
+        long size = Files.size(file);
+        EquationDictionary dictionary =
+                new EquationDictionary(equations.toArray(new String[0]), System.nanoTime() - start, size);
+        GameMetrics.get().dictionaryLoaded(dictionary.loadTimeNanos);
+        return dictionary;
+    }
+
+    /**
+     * Maps a PackedDictionary file. Equations are decoded from the mapping when they are requested.
+     *
+     * @param file The packed file to map.
+     * @return A new immutable dictionary.
+     * @throws IOException If the file cannot be read, is not a packed dictionary or is corrupt.
+     */
+    public static EquationDictionary loadPacked(Path file) throws IOException {
+        long start = System.nanoTime();
+        PackedDictionary packed = PackedDictionary.open(file);
+        EquationDictionary dictionary =
+                new EquationDictionary(packed, System.nanoTime() - start, Files.size(file));
+        GameMetrics.get().dictionaryLoaded(dictionary.loadTimeNanos);
+        return dictionary;
+    }
+
+    /**
+     * Creates a dictionary from equations already held in memory.
+     *
+     * @param equations The equations, copied into the dictionary.
+     * @return A new immutable dictionary.
+     */
+    public static EquationDictionary of(String... equations) {
+        return new EquationDictionary(equations.clone(), 0, 0);
+    }
+
+    /**
+     * Returns the equation at the given index.
+     *
+     * @param index The index of the equation, between 0 and size() - 1.
+     * @return The equation.
+     */
+    public String get(int index) {
+        return equations != null ? equations[index] : packed.get(index);
+    }
+
+    /**
+     * Returns the length of the equation at the given index, without decoding it.
+     *
+     * @param index The index of the equation, between 0 and size() - 1.
+     * @return The length of the equation.
+     */
+    public int getLength(int index) {
+        return equations != null ? equations[index].length() : packed.getEquationLength();
+    }
+
+    /**
+     * Copies the equation at the given index into an array, without creating a String for a packed dictionary.
+     *
+     * @param index The index of the equation, between 0 and size() - 1.
+     * @param chars The array to copy to, from index 0, at least as long as the equation.
+     * @return The length of the equation.
+     */
+    public int getChars(int index, char[] chars) {
+        if (equations != null) {
+            String equation = equations[index];
+            equation.getChars(0, equation.length(), chars, 0);
+            return equation.length();
+        }
+        Symbols.unpack(packed.getPacked(index), chars, packed.getEquationLength());
+        return packed.getEquationLength();
+    }
+
+    /**
+     * @return The length of the equations, taken from the first one, 0 if the dictionary is empty.
+     */
+    public int getEquationLength() {
+        if (equations != null) {
+            return equations.length == 0 ? 0 : equations[0].length();
+        }
+        return packed.size() == 0 ? 0 : packed.getEquationLength();
+    }
+
+    /**
+     * Returns the index of an equation in the dictionary.
+     * The reverse index is built the first time this method is called.
+     *
+     * @param equation The equation to look up.
+     * @return The index of the equation, or -1 if it is not in the dictionary.
+     */
+    public int indexOf(String equation) {
+        if (packed != null) {
+            return packedIndexOf(equation);
+        }
+        Map<String, Integer> map = indices;
+        if (map == null) {
+            // Concurrent first calls may both build the map, they build the same one
+            map = new HashMap<>(equations.length * 2);
+            for (int i = equations.length - 1; i >= 0; i--) {
+                map.put(equations[i], i);
+            }
+            indices = map;
+        }
+        Integer index = map.get(equation);
+        return index == null ? -1 : index;
+    }
+
+    private int packedIndexOf(String equation) {
+        long key = equation.length() == packed.getEquationLength() ? Symbols.pack(equation) : -1;
+        if (key == -1) {
+            return -1;
+        }
+        PackedIndex index = packedIndices;
+        if (index == null) {
+            // Concurrent first calls may both build the index, they build the same one
+            index = new PackedIndex(packed);
+            packedIndices = index;
+        }
+        return index.get(key);
+    }
+
+    /**
+     * Maps the packed equations of a packed dictionary to their first index, in an open-addressed table of
+     * primitives, so that no String or boxed key is created.
+     */
+    private static final class PackedIndex {
+        private final long[] keys;
+        private final int[] values;
+        private final int mask;
+
+        PackedIndex(PackedDictionary packed) {
+            int capacity = Integer.highestOneBit(Math.max(1, packed.size()) * 2 - 1) << 1;
+            keys = new long[capacity];
+            values = new int[capacity];
+            mask = capacity - 1;
+            Arrays.fill(keys, -1);
+            for (int i = 0; i < packed.size(); i++) {
+                long key = packed.getPacked(i);
+                int slot = slot(key);
+                while (keys[slot] != -1 && keys[slot] != key) {
+                    slot = (slot + 1) & mask;
+                }
+                if (keys[slot] == -1) {
+                    keys[slot] = key;
+                    values[slot] = i;
+                }
+            }
+        }
+
+        private int slot(long key) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        }
+
+        int get(long key) {
+            for (int slot = slot(key); keys[slot] != -1; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Returns the constraint index of this dictionary, building it the first time it is requested.
+     * The index is shared by every model and solver that uses this dictionary.
+     *
+     * @return The constraint index.
+     */
+    public ConstraintIndex getConstraintIndex() {
+        ConstraintIndex index = constraintIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = constraintIndex;
+                if (index == null) {
+                    index = new ConstraintIndex(this);
+                    constraintIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    public int size() {
+        return equations != null ? equations.length : packed.size();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @return Whether the dictionary was read from a packed file.
+     */
+    public boolean isPacked() {
+        return packed != null;
+    }
+
+    /**
+     * @return The time it took to read and parse the file, in nanoseconds, 0 if it was not loaded from a file.
+     */
+    public long getLoadTimeNanos() {
+        return loadTimeNanos;
+    }
+
+    /**
+     * @return The CRC32 checksum of the equations, in order.
+     */
+    public long getChecksum() {
+        return checksum;
+    }
+
+    /**
+     * @return The size of the file the dictionary was loaded from, in bytes, 0 if it was not loaded from a file.
+     */
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    @Override
+    public String toString() {
+        return "EquationDictionary[" + size() + (packed != null ? " packed" : "") + " equations, " + fileSize
+                + " bytes, loaded in " + loadTimeNanos / 1000 + " us]";
+    }
+}
@@ -0,0 +1,179 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The EquationGenerator class enumerates every 7 character equation over the alphabet "0-9+-*&#47;=" that
+ * INumberleModel.evaluateExpression accepts, and writes them to a file in the equations.txt format.
+ * The search space is split by the first two characters into tasks that run on a ForkJoinPool using all cores.
+ * Each task walks its subtree depth first and prunes a prefix as soon as it can no longer become a valid equation,
+ * either because it breaks the grammar or because its left-hand side divides by zero or overflows.
+ * Results are written in lexicographic order while later tasks are still running, and only a bounded window
+ * of finished tasks is held in memory.
+ * Usage: java EquationGenerator [output file]
+ */
+public final class EquationGenerator {
+    /** The number of characters in a Numberle equation. */
+    static final int LENGTH = 7;
+
+    // Grammar states of a prefix, the same as the ones of ExpressionEvaluator
+    private static final int SIDE_START = 0;
+    private static final int OPERAND = 1;
+    private static final int NUMBER = 2;
+
+    private final LongAdder checked = new LongAdder();
+    private final LongAdder found = new LongAdder();
+
+    public static void main(String[] args) throws IOException {
+        Path output = Paths.get(args.length > 0 ? args[0] : "equations-generated.txt");
+        EquationGenerator generator = new EquationGenerator();
+        long start = System.nanoTime();
+        try (BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            generator.generate(ForkJoinPool.commonPool(), writer);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Wrote %d equations to %s in %.2f s%n", generator.getFound(), output, seconds);
+        System.out.printf("Checked %d expressions, %.0f expressions/s on %d threads%n", generator.getChecked(),
+                generator.getChecked() / seconds, ForkJoinPool.commonPool().getParallelism());
+    }
+
+    /**
+     * Generates all valid equations and writes them to the writer, one per line.
+     *
+     * @param pool   The pool the prefix tasks are run on.
+     * @param writer The writer the equations are streamed to.
+     * @throws IOException If writing fails.
+     */
+    public void generate(ForkJoinPool pool, Writer writer) throws IOException {
+        int prefixes = Symbols.COUNT * Symbols.COUNT;
+        // Keep a few tasks per thread in flight, and write finished ones in order
+        int window = pool.getParallelism() * 4;
+        ArrayDeque<ForkJoinTask<StringBuilder>> inFlight = new ArrayDeque<>();
+        int next = 0;
+        while (next < prefixes || !inFlight.isEmpty()) {
+            while (next < prefixes && inFlight.size() < window) {
+                inFlight.add(pool.submit(new PrefixTask(Symbols.charAt(next / Symbols.COUNT),
+                        Symbols.charAt(next % Symbols.COUNT))));
+                next++;
+            }
+            writer.append(inFlight.poll().join());
+        }
+    }
+
+    public long getChecked() {
+        return checked.sum();
+    }
+
+    public long getFound() {
+        return found.sum();
+    }
+
+    /**
+     * Enumerates the equations starting with a given two character prefix.
+     */
+    private final class PrefixTask extends RecursiveTask<StringBuilder> {
+        private final char[] chars = new char[LENGTH];
+        // Scratch buffer holding "lhs=lhs", used to check that a finished left-hand side has a value
+        private final char[] sideCheck = new char[2 * LENGTH];
+        private final StringBuilder out = new StringBuilder();
+        private long localChecked;
+
+        PrefixTask(char first, char second) {
+            chars[0] = first;
+            chars[1] = second;
+        }
+
+        @Override
+        protected StringBuilder compute() {
+            int state = SIDE_START;
+            int equals = 0;
+            for (int i = 0; i < 2 && state >= 0; i++) {
+                state = advance(state, equals, chars[i]);
+                if (chars[i] == '=') {
+                    equals++;
+                    if (state >= 0 && !leftSideDefined(i)) {
+                        state = -1;
+                    }
+                }
+            }
+            if (state >= 0 && canFinish(state, equals, LENGTH - 2)) {
+                search(2, state, equals);
+            }
+            checked.add(localChecked);
+            return out;
+        }
+
+        /**
+         * Fills position pos onwards, given the grammar state and '=' count of the prefix before it.
+         */
+        private void search(int pos, int state, int equals) {
+            if (pos == LENGTH) {
+                localChecked++;
+                if (ExpressionEvaluator.evaluate(chars, 0, LENGTH) == ExpressionEvaluator.EQUAL) {
+                    out.append(chars).append("\r\n");
+                    found.increment();
+                }
+                return;
+            }
+            for (int s = 0; s < Symbols.COUNT; s++) {
+                char c = Symbols.charAt(s);
+                int nextState = advance(state, equals, c);
+                int nextEquals = c == '=' ? equals + 1 : equals;
+                if (nextState < 0 || !canFinish(nextState, nextEquals, LENGTH - pos - 1)) {
+                    continue;
+                }
+                chars[pos] = c;
+                if (c == '=' && !leftSideDefined(pos)) {
+                    continue;
+                }
+                search(pos + 1, nextState, nextEquals);
+            }
+        }
+
+        /**
+         * Checks that the left-hand side held in chars[0..equalsPos) divides by no zero and does not overflow,
+         * by evaluating it against itself.
+         */
+        private boolean leftSideDefined(int equalsPos) {
+            System.arraycopy(chars, 0, sideCheck, 0, equalsPos);
+            sideCheck[equalsPos] = '=';
+            System.arraycopy(chars, 0, sideCheck, equalsPos + 1, equalsPos);
+            return ExpressionEvaluator.evaluate(sideCheck, 0, 2 * equalsPos + 1) == ExpressionEvaluator.EQUAL;
+        }
+    }
+
+    /**
+     * Returns the grammar state after appending c to a prefix, or -1 if the prefix can no longer be valid.
+     */
+    private static int advance(int state, int equals, char c) {
+        if (c >= '0' && c <= '9') {
+            return NUMBER;
+        }
+        if (c == '=') {
+            return state == NUMBER && equals == 0 ? SIDE_START : -1;
+        }
+        if (state == SIDE_START) {
+            return c == '+' || c == '-' ? OPERAND : -1;
+        }
+        return state == NUMBER ? OPERAND : -1;
+    }
+
+    /**
+     * Checks whether a prefix in the given state can still be completed into an equation with the given
+     * number of characters left: it needs a digit to end the current operand, then "=" and a digit if the
+     * left-hand side is not finished yet.
+     */
+    private static boolean canFinish(int state, int equals, int remaining) {
+        int needed = (state == NUMBER ? 0 : 1) + (equals == 0 ? 2 : 0);
+        return needed <= remaining;
+    }
+}
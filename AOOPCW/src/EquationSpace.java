@@ -0,0 +1,308 @@
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The EquationSpace class is the set of all target equations of one length, generated on demand instead of
+ * being read from a file or held in memory. A target equation is written like the ones of equations.txt:
+ * each side is numbers joined by '+', '-', '*' or '/', numbers have no leading zero and no sign, there is at
+ * least one operator, and ExpressionEvaluator finds both sides equal.
+ * The well-formed strings (those that follow the grammar, equal or not) are counted by dynamic programming
+ * over (characters left, grammar state), which ranks them in alphabet order: the string of any rank can be
+ * built directly (unranked) in LENGTH x Symbols.COUNT steps. This gives
+ *   - a Spliterator over a range of ranks, which walks from one well-formed string to the next and keeps the
+ *     equal ones, and splits by halving its range, so parallel streams balance without any shared state;
+ *   - uniform random sampling by rejection: draw a uniform rank, unrank it, and keep it if it is equal.
+ *     Every target is equally likely because every well-formed string is.
+ * For 12 characters there are about 5 x 10^12 well-formed strings, none of which is ever stored. Equal ones are
+ * rare (about 1 in 160 for 7 characters, fewer for longer ones), so a sample takes from tens of microseconds to
+ * about a millisecond, and walking a whole space beyond 8 characters takes minutes even in parallel.
+ */
+public final class EquationSpace {
+    /** The shortest length supported. */
+    public static final int MIN_LENGTH = 3;
+    /** The longest length supported, limited by Symbols.pack. */
+    public static final int MAX_LENGTH = Symbols.MAX_PACKED_LENGTH;
+
+    // Grammar states: expecting a number, inside the number "0", inside a number starting with 1-9,
+    // plus 3 if the '=' was seen and 6 if an operator was seen
+    private static final int EXPECT_NUMBER = 0;
+    private static final int IN_ZERO = 1;
+    private static final int IN_NUMBER = 2;
+    private static final int SEEN_EQUALS = 3;
+    private static final int SEEN_OPERATOR = 6;
+    private static final int STATES = 12;
+    private static final int EQUALS_INDEX = Symbols.indexOf('=');
+
+    /** The state after each symbol, by state and symbol index, or -1 if the symbol cannot follow. */
+    private static final byte[][] NEXT = new byte[STATES][Symbols.COUNT];
+
+    private static final EquationSpace[] SPACES = new EquationSpace[MAX_LENGTH + 1];
+
+    static {
+        for (int state = 0; state < STATES; state++) {
+            int kind = state % 3;
+            for (int symbol = 0; symbol < Symbols.COUNT; symbol++) {
+                NEXT[state][symbol] = (byte) next(kind, state - kind, symbol);
+            }
+        }
+    }
+
+    private final int length;
+    // completions[r][state]: number of ways to end a well-formed string with r characters left from the state
+    private final long[][] completions;
+
+    private EquationSpace(int length) {
+        this.length = length;
+        this.completions = new long[length + 1][STATES];
+        for (int state = 0; state < STATES; state++) {
+            completions[0][state] = isFinal(state) ? 1 : 0;
+        }
+        for (int left = 1; left <= length; left++) {
+            for (int state = 0; state < STATES; state++) {
+                long count = 0;
+                for (int symbol = 0; symbol < Symbols.COUNT; symbol++) {
+                    int next = NEXT[state][symbol];
+                    if (next >= 0) {
+                        count += completions[left - 1][next];
+                    }
+                }
+                completions[left][state] = count;
+            }
+        }
+    }
+
+    /**
+     * Returns the space of the equations of a length. Spaces are built on first use and shared.
+     *
+     * @param length The number of characters of the equations.
+     * @return The space.
+     * @throws IllegalArgumentException If the length is not between MIN_LENGTH and MAX_LENGTH.
+     */
+    public static EquationSpace of(int length) {
+        if (length < MIN_LENGTH || length > MAX_LENGTH) {
+            throw new IllegalArgumentException("Equation length " + length + " is not between " + MIN_LENGTH
+                    + " and " + MAX_LENGTH);
+        }
+        EquationSpace space = SPACES[length];
+        if (space == null) {
+            // Concurrent first calls may both build the space, they build the same one
+            space = new EquationSpace(length);
+            SPACES[length] = space;
+        }
+        return space;
+    }
+
+    /**
+     * Returns the state after a symbol, given the kind of the state before it (EXPECT_NUMBER, IN_ZERO or
+     * IN_NUMBER) and its SEEN_ flags, or -1 if the symbol cannot follow.
+     */
+    private static int next(int kind, int flags, int symbol) {
+        boolean inNumber = kind != EXPECT_NUMBER;
+        boolean equalsSeen = flags % SEEN_OPERATOR == SEEN_EQUALS;
+        if (symbol < 10) {
+            if (kind == IN_ZERO) {
+                return -1; // No leading zero
+            }
+            return flags + (kind == EXPECT_NUMBER ? (symbol == 0 ? IN_ZERO : IN_NUMBER) : IN_NUMBER);
+        }
+        if (!inNumber) {
+            return -1; // No sign and no two operators in a row
+        }
+        if (symbol == EQUALS_INDEX) {
+            return equalsSeen ? -1 : flags + SEEN_EQUALS + EXPECT_NUMBER;
+        }
+        return (flags >= SEEN_OPERATOR ? flags : flags + SEEN_OPERATOR) + EXPECT_NUMBER;
+    }
+
+    private static boolean isFinal(int state) {
+        return state % 3 != EXPECT_NUMBER && state % SEEN_OPERATOR >= SEEN_EQUALS && state >= SEEN_OPERATOR;
+    }
+
+    /**
+     * @return The number of characters of the equations.
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Returns the number of well-formed strings of the length, an upper bound of the number of equations.
+     *
+     * @return The number of well-formed strings.
+     */
+    public long wellFormedCount() {
+        return completions[length][EXPECT_NUMBER];
+    }
+
+    /**
+     * Writes the well-formed string of a rank, in alphabet order, as symbol indices, and the grammar
+     * state before each of them.
+     */
+    private void unrank(long rank, byte[] symbols, byte[] states) {
+        int state = EXPECT_NUMBER;
+        for (int pos = 0; pos < length; pos++) {
+            states[pos] = (byte) state;
+            long[] left = completions[length - pos - 1];
+            for (int symbol = 0; symbol < Symbols.COUNT; symbol++) {
+                int next = NEXT[state][symbol];
+                if (next < 0) {
+                    continue;
+                }
+                if (rank < left[next]) {
+                    symbols[pos] = (byte) symbol;
+                    state = next;
+                    break;
+                }
+                rank -= left[next];
+            }
+        }
+    }
+
+    /**
+     * Moves to the next well-formed string in alphabet order: the last position that can take a greater
+     * symbol takes the smallest such one, and the positions after it take the smallest completion.
+     *
+     * @return false if this was the last one.
+     */
+    private boolean advance(byte[] symbols, byte[] states) {
+        for (int pos = length - 1; pos >= 0; pos--) {
+            long[] left = completions[length - pos - 1];
+            for (int symbol = symbols[pos] + 1; symbol < Symbols.COUNT; symbol++) {
+                int next = NEXT[states[pos]][symbol];
+                if (next >= 0 && left[next] > 0) {
+                    symbols[pos] = (byte) symbol;
+                    unrankFrom(pos + 1, next, symbols, states);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Fills the positions from pos with the smallest completion of the state.
+     */
+    private void unrankFrom(int pos, int state, byte[] symbols, byte[] states) {
+        for (; pos < length; pos++) {
+            states[pos] = (byte) state;
+            long[] left = completions[length - pos - 1];
+            for (int symbol = 0; symbol < Symbols.COUNT; symbol++) {
+                int next = NEXT[state][symbol];
+                if (next >= 0 && left[next] > 0) {
+                    symbols[pos] = (byte) symbol;
+                    state = next;
+                    break;
+                }
+            }
+        }
+    }
+
+    private boolean isEqual(byte[] symbols, char[] chars) {
+        for (int i = 0; i < length; i++) {
+            chars[i] = Symbols.charAt(symbols[i]);
+        }
+        return ExpressionEvaluator.evaluate(chars, 0, length) == ExpressionEvaluator.EQUAL;
+    }
+
+    /**
+     * Draws an equation uniformly at random. Each try costs one unranking and one evaluation.
+     *
+     * @param random The source of randomness.
+     * @return The equation.
+     */
+    public String sample(Random random) {
+        byte[] symbols = new byte[length];
+        byte[] states = new byte[length];
+        char[] chars = new char[length];
+        while (true) {
+            unrank(random.nextLong(wellFormedCount()), symbols, states);
+            if (isEqual(symbols, chars)) {
+                return new String(chars);
+            }
+        }
+    }
+
+    /**
+     * @return The first equation in alphabet order, used as the fixed target when targets are not random.
+     */
+    public String first() {
+        return stream(false).findFirst().orElseThrow();
+    }
+
+    /**
+     * @return A Spliterator over all the equations, in alphabet order.
+     */
+    public Spliterator<String> spliterator() {
+        return new EquationSpliterator(0, wellFormedCount());
+    }
+
+    /**
+     * Returns all the equations as a stream, generated as the stream is consumed.
+     *
+     * @param parallel Whether the stream is parallel.
+     * @return The stream of equations, in alphabet order.
+     */
+    public Stream<String> stream(boolean parallel) {
+        return StreamSupport.stream(spliterator(), parallel);
+    }
+
+    /**
+     * Generates the equations among the well-formed strings of ranks [next, end).
+     */
+    private final class EquationSpliterator implements Spliterator<String> {
+        private long next;
+        private final long end;
+        private byte[] symbols; // The string of rank next - 1, once started
+        private byte[] states;
+        private char[] chars;
+
+        EquationSpliterator(long next, long end) {
+            this.next = next;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super String> action) {
+            while (next < end) {
+                if (symbols == null) {
+                    symbols = new byte[length];
+                    states = new byte[length];
+                    chars = new char[length];
+                    unrank(next, symbols, states);
+                } else {
+                    advance(symbols, states);
+                }
+                next++;
+                if (isEqual(symbols, chars)) {
+                    action.accept(new String(chars));
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Spliterator<String> trySplit() {
+            if (symbols != null || end - next < 1024) {
+                return null; // Started, or too small to be worth it
+            }
+            long middle = next + (end - next) / 2;
+            Spliterator<String> prefix = new EquationSpliterator(next, middle);
+            next = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - next; // The number of well-formed strings left, of which only some are equal
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | DISTINCT | NONNULL | IMMUTABLE;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EquationSpaceTest {
+    // The form of the equations of an EquationSpace: numbers without a leading zero or a sign, joined by operators
+    private static final String NUMBER = "(0|[1-9][0-9]*)";
+    private static final String SIDE = NUMBER + "([-+*/]" + NUMBER + ")*";
+    private static final Pattern FORM = Pattern.compile(SIDE + "=" + SIDE);
+
+    /**
+     * Tests that the space of 7 characters holds exactly the equations EquationGenerator finds by search,
+     * less the ones the space leaves out by design, and every equation of equations.txt of that form.
+     * -----------------------------------------------------------------------------------------------------------------
+     * @ ensures EquationSpace.of(7).stream(true).count() == the generated equations of the same form;
+     */
+    @Test
+    public void testStreamMatchesGenerator() throws IOException {
+        StringWriter generated = new StringWriter();
+        new EquationGenerator().generate(ForkJoinPool.commonPool(), generated);
+        Set<String> expected = Arrays.stream(generated.toString().split("\\R"))
+                .filter(EquationSpaceTest::isTarget)
+                .collect(Collectors.toSet());
+
+        EquationSpace space = EquationSpace.of(7);
+        assertEquals(expected.size(), space.stream(true).count());
+        assertEquals(expected, space.stream(true).collect(Collectors.toSet()));
+        assertTrue(space.stream(false).allMatch(expected::contains));
+
+        EquationDictionary dictionary = EquationDictionary.load(Paths.get(EquationDictionary.DEFAULT_FILE));
+        for (int i = 0; i < dictionary.size(); i++) {
+            String equation = dictionary.get(i);
+            assertEquals(isTarget(equation), expected.contains(equation), equation);
+        }
+    }
+
+    /**
+     * Tests that sampling gives equations of the space for every length a game may be played with.
+     *
+     * @post Every sample has the length asked for, the form of the space, and both sides equal.
+     */
+    @Test
+    public void testSample() {
+        Random random = new Random(42);
+        for (int length = 5; length <= 12; length++) {
+            EquationSpace space = EquationSpace.of(length);
+            for (int i = 0; i < 20; i++) {
+                String equation = space.sample(random);
+                assertEquals(length, equation.length(), equation);
+                assertTrue(isTarget(equation), equation);
+            }
+            assertTrue(isTarget(space.first()), space.first());
+        }
+    }
+
+    private static boolean isTarget(String equation) {
+        return FORM.matcher(equation).matches() && equation.chars().anyMatch(c -> "+-*/".indexOf(c) >= 0)
+                && ExpressionEvaluator.evaluate(equation) == ExpressionEvaluator.EQUAL;
+    }
+}
@@ -0,0 +1,201 @@
+/**
+ * The ExpressionEvaluator class validates and evaluates a Numberle equation of the form "leftSide=rightSide"
+ * in a single pass over its characters.
+ * Each side follows the grammar [+-]?digits([+-*&#47;]digits)* and is evaluated as an exact rational number
+ * held in two longs, honouring the usual precedence of '*' and '/' over '+' and '-'.
+ * No objects are allocated per call, so the evaluator can be used to score millions of candidate expressions.
+ * The result codes are the same as the ones returned by INumberleModel.evaluateExpression.
+ */
+public final class ExpressionEvaluator {
+    /** Both sides are valid and equal. */
+    public static final int EQUAL = 0;
+    /** The expression does not split into exactly two sides around an '=' sign. */
+    public static final int NO_EQUAL = 2;
+    /** One of the sides is not a valid arithmetic expression. */
+    public static final int INVALID = 3;
+    /** Both sides are valid but not equal, or one of them divides by zero or overflows. */
+    public static final int NOT_EQUAL = 4;
+
+    // Parser states: expecting the optional sign or the first digit of a side, expecting a digit after
+    // an operator or sign, and inside a number (where an operator, '=' or another digit may follow).
+    private static final int SIDE_START = 0;
+    private static final int OPERAND = 1;
+    private static final int NUMBER = 2;
+
+    private ExpressionEvaluator() {
+    }
+
+    /**
+     * Evaluates an expression held in a CharSequence.
+     *
+     * @param expression The expression to be evaluated, in the format "leftSide=rightSide".
+     * @return 0 if the sides are equal, 2 if there is no single '=' sign,
+     *         3 if the expression is invalid, 4 if the sides are not equal.
+     */
+    public static int evaluate(CharSequence expression) {
+        assert expression != null : "Expression cannot be null";
+        return evaluate(expression, null, 0, expression.length());
+    }
+
+    /**
+     * Evaluates an expression held in a region of a char array, without copying it.
+     *
+     * @param chars  The array holding the expression.
+     * @param offset The index of the first character of the expression.
+     * @param length The number of characters in the expression.
+     * @return 0 if the sides are equal, 2 if there is no single '=' sign,
+     *         3 if the expression is invalid, 4 if the sides are not equal.
+     */
+    public static int evaluate(char[] chars, int offset, int length) {
+        assert chars != null : "Expression cannot be null";
+        return evaluate(null, chars, offset, length);
+    }
+
+    /**
+     * Runs the single pass shared by both public entry points. Exactly one of text and chars is non-null.
+     * The '=' handling mirrors the former String.split("=") check: trailing '=' signs are ignored when counting
+     * the sides, so "1+1=2=" counts as two sides (and is then rejected as invalid) while "1+1=" has only one.
+     */
+    private static int evaluate(CharSequence text, char[] chars, int offset, int length) {
+        int equalsCount = 0;          // '=' signs seen so far
+        int equalsBeforeTail = 0;     // '=' signs followed by at least one other character
+        boolean malformed = false;    // the grammar was violated somewhere
+        boolean undefined = false;    // a division by zero or an overflow happened
+        int state = SIDE_START;
+
+        // Exact value of the left side once it is complete
+        long leftNum = 0;
+        long leftDen = 1;
+        // Running value of the current side: sum of the finished terms plus the current term
+        long sumNum = 0;
+        long sumDen = 1;
+        long termNum = 0;
+        long termDen = 1;
+        long number = 0;
+        boolean negateTerm = false;   // the current term is subtracted from the sum
+        char pendingOp = 0;           // the '*' or '/' waiting for the number being read, 0 for none
+
+        for (int i = 0; i <= length; i++) {
+            // A virtual '=' after the last character finishes the right side
+            char c = i == length ? '=' : (chars != null ? chars[offset + i] : text.charAt(i));
+            if (c != '=') {
+                equalsBeforeTail = equalsCount;
+            } else if (i < length) {
+                equalsCount++;
+            }
+            if (c >= '0' && c <= '9') {
+                if (number > (Long.MAX_VALUE - (c - '0')) / 10) {
+                    undefined = true;
+                } else {
+                    number = number * 10 + (c - '0');
+                }
+                state = NUMBER;
+                continue;
+            }
+            if (malformed) {
+                // Keep counting '=' signs only, they decide between codes 2 and 3
+                continue;
+            }
+            if (state == SIDE_START && (c == '+' || c == '-')) {
+                negateTerm = c == '-';
+                state = OPERAND;
+                continue;
+            }
+            if (state != NUMBER || (c != '+' && c != '-' && c != '*' && c != '/' && c != '=')
+                    || (c == '=' && equalsCount > 1)) {
+                malformed = true;
+                continue;
+            }
+            // Fold the number just read into the current term
+            if (!undefined) {
+                if (pendingOp == 0) {
+                    termNum = number;
+                    termDen = 1;
+                } else if (pendingOp == '*') {
+                    long g = gcd(number, termDen);
+                    long n = number / g;
+                    termDen /= g;
+                    if (Math.multiplyHigh(termNum, n) != (termNum * n) >> 63) {
+                        undefined = true;
+                    }
+                    termNum *= n;
+                } else if (number == 0) {
+                    undefined = true;
+                } else {
+                    long g = gcd(number, termNum);
+                    long n = number / g;
+                    termNum /= g;
+                    if (Math.multiplyHigh(termDen, n) != (termDen * n) >> 63) {
+                        undefined = true;
+                    }
+                    termDen *= n;
+                }
+            }
+            number = 0;
+            if (c == '*' || c == '/') {
+                pendingOp = c;
+                state = OPERAND;
+                continue;
+            }
+            // '+', '-' or '=' ends the term: add it to the sum
+            if (!undefined) {
+                long n = negateTerm ? -termNum : termNum;
+                long g = gcd(sumDen, termDen);
+                long a = sumDen / g;
+                long b = termDen / g;
+                long left = sumNum * b;
+                long right = n * a;
+                long den = sumDen * b;
+                long num = left + right;
+                if (Math.multiplyHigh(sumNum, b) != left >> 63
+                        || Math.multiplyHigh(n, a) != right >> 63
+                        || Math.multiplyHigh(sumDen, b) != den >> 63
+                        || ((left ^ num) & (right ^ num)) < 0) {
+                    undefined = true;
+                } else {
+                    g = gcd(num, den);
+                    sumNum = num / g;
+                    sumDen = den / g;
+                }
+            }
+            pendingOp = 0;
+            negateTerm = c == '-';
+            state = OPERAND;
+            if (c == '=' && i < length) {
+                // The left side is complete, start the right side
+                leftNum = sumNum;
+                leftDen = sumDen;
+                sumNum = 0;
+                sumDen = 1;
+                negateTerm = false;
+                state = SIDE_START;
+            }
+        }
+        // Trailing '=' signs do not start a side, as with String.split("=")
+        if (equalsBeforeTail != 1) {
+            return NO_EQUAL;
+        }
+        if (malformed) {
+            return INVALID;
+        }
+        if (undefined) {
+            return NOT_EQUAL;
+        }
+        // Denominators are positive and both fractions are reduced, so equal values have equal parts
+        return leftNum == sumNum && leftDen == sumDen ? EQUAL : NOT_EQUAL;
+    }
+
+    /**
+     * Greatest common divisor of the magnitudes of a and b, never 0 so it can always be divided by.
+     */
+    private static long gcd(long a, long b) {
+        a = Math.abs(a);
+        b = Math.abs(b);
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a == 0 ? 1 : a;
+    }
+}
@@ -0,0 +1,50 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExpressionEvaluatorTest {
+
+    /**
+     * Tests that valid equations are accepted, using exact arithmetic for both sides.
+     * ----------------------------------------------------------------------------------------------------------------
+     * @ ensures \result == 0 for every equation whose sides have the same exact value;
+     */
+    @Test
+    public void testEqualSides() {
+        assertEquals(ExpressionEvaluator.EQUAL, ExpressionEvaluator.evaluate("1+2+3=6"));
+        assertEquals(ExpressionEvaluator.EQUAL, ExpressionEvaluator.evaluate("-8+5=-3")); // Leading sign on both sides.
+        assertEquals(ExpressionEvaluator.EQUAL, ExpressionEvaluator.evaluate("3/2*2=3")); // Fractional intermediate value.
+        assertEquals(ExpressionEvaluator.EQUAL, ExpressionEvaluator.evaluate("1/3+1/3=2/3"));
+        assertEquals(ExpressionEvaluator.EQUAL, ExpressionEvaluator.evaluate("2+3*2=8")); // '*' binds tighter than '+'.
+    }
+
+    /**
+     * Tests the error codes, which must stay the same as the ones of the former regex and double based evaluation.
+     * ----------------------------------------------------------------------------------------------------------------
+     * @ ensures \result == 2 if the expression does not have exactly two sides;
+     * @ ensures \result == 3 if a side is not a valid expression;
+     * @ ensures \result == 4 if the sides differ, divide by zero or overflow;
+     */
+    @Test
+    public void testErrorCodes() {
+        assertEquals(ExpressionEvaluator.NO_EQUAL, ExpressionEvaluator.evaluate("+-*/+-*")); // No "=" type in.
+        assertEquals(ExpressionEvaluator.NO_EQUAL, ExpressionEvaluator.evaluate("12=12=1")); // Three sides.
+        assertEquals(ExpressionEvaluator.NO_EQUAL, ExpressionEvaluator.evaluate("*123+5=")); // Trailing "=" gives one side.
+        assertEquals(ExpressionEvaluator.INVALID, ExpressionEvaluator.evaluate("abcd=fg"));
+        assertEquals(ExpressionEvaluator.INVALID, ExpressionEvaluator.evaluate("1+1=2=")); // Trailing "=" after two sides.
+        assertEquals(ExpressionEvaluator.INVALID, ExpressionEvaluator.evaluate("1++1=2"));
+        assertEquals(ExpressionEvaluator.NOT_EQUAL, ExpressionEvaluator.evaluate("1+2+3=7"));
+        assertEquals(ExpressionEvaluator.NOT_EQUAL, ExpressionEvaluator.evaluate("1/0=1/0")); // Division by zero.
+        assertEquals(ExpressionEvaluator.NOT_EQUAL, ExpressionEvaluator.evaluate("99999999999999999999=1")); // Overflow.
+    }
+
+    /**
+     * Tests that a region of a char array evaluates the same as the equivalent String.
+     */
+    @Test
+    public void testCharArrayRegion() {
+        char[] chars = "xx1+2+3=6yy".toCharArray();
+        assertEquals(ExpressionEvaluator.EQUAL, ExpressionEvaluator.evaluate(chars, 2, 7));
+        assertEquals(ExpressionEvaluator.NOT_EQUAL, ExpressionEvaluator.evaluate(chars, 3, 6)); // "+2+3=6" is not equal.
+    }
+}
@@ -0,0 +1,118 @@
+import java.util.ArrayList;
+
+/**
+ * The Feedback class packs the result of one guess into a single int, using 2 bits per position:
+ * bits 2*i and 2*i+1 hold the color of position i, GREEN (0), ORANGE (1) or GRAY (2).
+ * These are the same codes as the "0", "1" and "2" strings of INumberleModel.getColors().
+ * Since GREEN is 0, a winning guess always scores 0. Up to 16 positions fit in one int.
+ * The score method follows the Wordle rules for repeated symbols: a symbol is marked ORANGE only as many times
+ * as it appears in the target and is not already GREEN, any further occurrence is GRAY.
+ */
+public final class Feedback {
+    /** The symbol is in the right position. */
+    public static final int GREEN = 0;
+    /** The symbol is in the equation, but in another position. */
+    public static final int ORANGE = 1;
+    /** The symbol is not in the equation, or all its occurrences are already accounted for. */
+    public static final int GRAY = 2;
+
+    private Feedback() {
+    }
+
+    /**
+     * Scores a guess against a target of the same length.
+     *
+     * @param guess  The guessed equation.
+     * @param target The target equation.
+     * @return The packed feedback.
+     */
+    public static int score(CharSequence guess, CharSequence target) {
+        assert guess.length() == target.length() : "Guess and target must have the same length";
+        // Count the target symbols that are not matched exactly, 4 bits per symbol in one long
+        long counts = 0;
+        for (int i = 0; i < target.length(); i++) {
+            int t = Symbols.indexOf(target.charAt(i));
+            if (t >= 0 && guess.charAt(i) != target.charAt(i)) {
+                counts += 1L << (t << 2);
+            }
+        }
+        int feedback = 0;
+        for (int i = 0; i < guess.length(); i++) {
+            if (guess.charAt(i) == target.charAt(i)) {
+                continue; // GREEN is 0
+            }
+            int g = Symbols.indexOf(guess.charAt(i));
+            if (g >= 0 && ((counts >>> (g << 2)) & 0xF) != 0) {
+                counts -= 1L << (g << 2);
+                feedback |= ORANGE << (i << 1);
+            } else {
+                feedback |= GRAY << (i << 1);
+            }
+        }
+        return feedback;
+    }
+
+    /**
+     * Scores a guess against a target, both held in char arrays of at least length characters.
+     *
+     * @param guess  The guessed equation.
+     * @param target The target equation.
+     * @param length The number of characters to compare.
+     * @return The packed feedback.
+     */
+    public static int score(char[] guess, char[] target, int length) {
+        long counts = 0;
+        for (int i = 0; i < length; i++) {
+            int t = Symbols.indexOf(target[i]);
+            if (t >= 0 && guess[i] != target[i]) {
+                counts += 1L << (t << 2);
+            }
+        }
+        int feedback = 0;
+        for (int i = 0; i < length; i++) {
+            if (guess[i] == target[i]) {
+                continue;
+            }
+            int g = Symbols.indexOf(guess[i]);
+            if (g >= 0 && ((counts >>> (g << 2)) & 0xF) != 0) {
+                counts -= 1L << (g << 2);
+                feedback |= ORANGE << (i << 1);
+            } else {
+                feedback |= GRAY << (i << 1);
+            }
+        }
+        return feedback;
+    }
+
+    /**
+     * Returns the color of one position.
+     *
+     * @param feedback The packed feedback.
+     * @param position The position, starting at 0.
+     * @return GREEN, ORANGE or GRAY.
+     */
+    public static int colorAt(int feedback, int position) {
+        return (feedback >>> (position << 1)) & 3;
+    }
+
+    /**
+     * Checks whether the feedback is the one of a winning guess.
+     */
+    public static boolean isWin(int feedback) {
+        return feedback == 0;
+    }
+
+    /**
+     * Converts the packed feedback to the list of "0", "1" and "2" strings used by INumberleModel.getColors().
+     *
+     * @param feedback The packed feedback.
+     * @param length   The number of positions.
+     * @param colors   The list to fill, it is cleared first.
+     */
+    public static void toColorStrings(int feedback, int length, ArrayList<String> colors) {
+        colors.clear();
+        for (int i = 0; i < length; i++) {
+            colors.add(String.valueOf(colorAt(feedback, i)));
+        }
+    }
+}
@@ -0,0 +1,196 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+
+/**
+ * The FeedbackMatrix class holds the packed feedback (see Feedback) of every dictionary equation guessed
+ * against every other one, as one short per pair.
+ * The table is computed in parallel by the main method and written to a binary file, which is then
+ * memory-mapped read-only, so the N x N entries live outside the Java heap and each lookup is a single read.
+ * The file starts with a 32 byte header (magic, version, equation count, equation length and the checksum
+ * of the dictionary), followed by the rows in guess order, each holding one short per target.
+ * Usage: java FeedbackMatrix [equations file] [output file]
+ */
+public final class FeedbackMatrix {
+    /** The file the default matrix is loaded from. */
+    public static final String DEFAULT_FILE = "feedback.bin";
+
+    private static final int MAGIC = 0x4E464D31; // "NFM1"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    // Equations up to 8 characters have a feedback of at most 16 bits
+    private static final int MAX_LENGTH = 8;
+    // A single mapping is limited to 2 GB, larger tables are mapped in chunks of whole rows
+    private static final long MAX_CHUNK_SIZE = 1L << 30;
+
+    private final MappedByteBuffer[] chunks;
+    private final int size;
+    private final int rowsPerChunk;
+
+    /**
+     * Holds the default matrix, so that the file is mapped lazily and at most once.
+     */
+    private static final class DefaultHolder {
+        static final FeedbackMatrix INSTANCE = openDefault();
+    }
+
+    private FeedbackMatrix(MappedByteBuffer[] chunks, int size, int rowsPerChunk) {
+        this.chunks = chunks;
+        this.size = size;
+        this.rowsPerChunk = rowsPerChunk;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path input = Paths.get(args.length > 0 ? args[0] : EquationDictionary.DEFAULT_FILE);
+        Path output = Paths.get(args.length > 1 ? args[1] : DEFAULT_FILE);
+        EquationDictionary dictionary = EquationDictionary.load(input);
+        long start = System.nanoTime();
+        write(dictionary, output);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long pairs = (long) dictionary.size() * dictionary.size();
+        System.out.printf("Wrote %d x %d feedback matrix to %s in %.2f s (%.0f pairs/s)%n",
+                dictionary.size(), dictionary.size(), output, seconds, pairs / seconds);
+    }
+
+    /**
+     * Returns the matrix of the default dictionary, mapping "feedback.bin" on first use.
+     *
+     * @return The default matrix, or null if the file does not exist or does not match the default dictionary.
+     */
+    public static FeedbackMatrix getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    private static FeedbackMatrix openDefault() {
+        Path file = Paths.get(DEFAULT_FILE);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            return open(file, EquationDictionary.getDefault());
+        } catch (IOException e) {
+            // The model then scores guesses directly
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Computes the feedback of every pair of equations in parallel and writes the matrix file.
+     * Rows are written straight to the file as they are computed, the table is never held in memory.
+     *
+     * @param dictionary The dictionary, whose equations must all have the same length of at most 8.
+     * @param file       The file to write.
+     * @throws IOException If writing fails.
+     */
+    public static void write(EquationDictionary dictionary, Path file) throws IOException {
+        int n = dictionary.size();
+        int length = n == 0 ? 0 : dictionary.get(0).length();
+        char[][] equations = new char[n][];
+        for (int i = 0; i < n; i++) {
+            equations[i] = dictionary.get(i).toCharArray();
+            if (equations[i].length != length || length > MAX_LENGTH) {
+                throw new IllegalArgumentException("Equations must all have the same length of at most "
+                        + MAX_LENGTH + ": " + dictionary.get(i));
+            }
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(length).putLong(dictionary.getChecksum());
+            header.clear();
+            channel.write(header, 0);
+            ThreadLocal<ByteBuffer> rows = ThreadLocal.withInitial(
+                    () -> ByteBuffer.allocateDirect(n * 2).order(ByteOrder.LITTLE_ENDIAN));
+            IntStream.range(0, n).parallel().forEach(guess -> {
+                ByteBuffer row = rows.get();
+                row.clear();
+                for (int target = 0; target < n; target++) {
+                    row.putShort((short) Feedback.score(equations[guess], equations[target], length));
+                }
+                row.flip();
+                try {
+                    // Positional writes do not move the channel position, so rows can be written concurrently
+                    long position = HEADER_SIZE + (long) guess * n * 2;
+                    while (row.hasRemaining()) {
+                        position += channel.write(row, position);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Maps a matrix file read-only and checks that it was computed from the given dictionary.
+     *
+     * @param file       The matrix file.
+     * @param dictionary The dictionary the matrix must belong to.
+     * @return The mapped matrix.
+     * @throws IOException If the file cannot be read or does not match the dictionary.
+     */
+    public static FeedbackMatrix open(Path file, EquationDictionary dictionary) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    break;
+                }
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException(file + " is not a feedback matrix file");
+            }
+            int n = header.getInt();
+            header.getInt(); // Equation length
+            long checksum = header.getLong();
+            if (n != dictionary.size() || checksum != dictionary.getChecksum()) {
+                throw new IOException(file + " was computed from another dictionary");
+            }
+            long rowSize = (long) n * 2;
+            if (channel.size() < HEADER_SIZE + rowSize * n) {
+                throw new IOException(file + " is truncated");
+            }
+            int rowsPerChunk = (int) Math.max(1, Math.min(n, MAX_CHUNK_SIZE / Math.max(1, rowSize)));
+            MappedByteBuffer[] chunks = new MappedByteBuffer[n == 0 ? 0 : (n + rowsPerChunk - 1) / rowsPerChunk];
+            for (int i = 0; i < chunks.length; i++) {
+                long firstRow = (long) i * rowsPerChunk;
+                long rows = Math.min(rowsPerChunk, n - firstRow);
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + firstRow * rowSize, rows * rowSize);
+                chunks[i].order(ByteOrder.LITTLE_ENDIAN);
+            }
+            // The mappings stay valid after the channel is closed
+            return new FeedbackMatrix(chunks, n, rowsPerChunk);
+        }
+    }
+
+    /**
+     * Returns the packed feedback of a guess against a target, both given by their dictionary index.
+     *
+     * @param guess  The index of the guessed equation.
+     * @param target The index of the target equation.
+     * @return The packed feedback, the same as Feedback.score would return.
+     */
+    public int get(int guess, int target) {
+        int offset = ((guess % rowsPerChunk) * size + target) * 2;
+        return chunks[guess / rowsPerChunk].getShort(offset) & 0xFFFF;
+    }
+
+    /**
+     * @return The number of equations, the matrix has size() x size() entries.
+     */
+    public int size() {
+        return size;
+    }
+}
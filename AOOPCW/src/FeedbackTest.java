@@ -0,0 +1,53 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FeedbackTest {
+
+    /**
+     * Tests the packing of a guess that matches the target: every position is green, so the feedback is 0.
+     */
+    @Test
+    public void testWinningGuess() {
+        int feedback = Feedback.score("1+2+3=6", "1+2+3=6");
+        assertTrue(Feedback.isWin(feedback));
+        for (int i = 0; i < 7; i++) {
+            assertEquals(Feedback.GREEN, Feedback.colorAt(feedback, i));
+        }
+    }
+
+    /**
+     * Tests the handling of repeated symbols.
+     * The target "1+2+3=6" has a single '1', which the first position already matches,
+     * so the second '1' of the guess must be gray and not orange.
+     * ----------------------------------------------------------------------------------------------------------------
+     * @ ensures a symbol is orange at most as many times as it is left unmatched in the target;
+     */
+    @Test
+    public void testRepeatedSymbols() {
+        int feedback = Feedback.score("1+1+4=6", "1+2+3=6");
+        assertEquals(Feedback.GREEN, Feedback.colorAt(feedback, 0));
+        assertEquals(Feedback.GRAY, Feedback.colorAt(feedback, 2)); // The only '1' is already green.
+        assertEquals(Feedback.GRAY, Feedback.colorAt(feedback, 4));
+
+        feedback = Feedback.score("11+2=13", "2+11=13");
+        assertEquals(Feedback.ORANGE, Feedback.colorAt(feedback, 0));
+        assertEquals(Feedback.ORANGE, Feedback.colorAt(feedback, 1));
+        assertEquals(Feedback.ORANGE, Feedback.colorAt(feedback, 2)); // '+' moved.
+        assertEquals(Feedback.ORANGE, Feedback.colorAt(feedback, 3)); // '2' moved.
+        assertEquals(feedback, Feedback.score("11+2=13".toCharArray(), "2+11=13".toCharArray(), 7));
+    }
+
+    /**
+     * Tests that the string view matches the codes used by INumberleModel.getColors().
+     */
+    @Test
+    public void testColorStrings() {
+        ArrayList<String> colors = new ArrayList<>();
+        Feedback.toColorStrings(Feedback.score("3+2+2=7", "1+2+3=6"), 7, colors);
+        assertEquals(Arrays.asList("1", "0", "0", "0", "2", "0", "2"), colors);
+    }
+}
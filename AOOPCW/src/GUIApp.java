@@ -1,24 +1,112 @@
 
+import javax.swing.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
 /**
  * The GUIApp class represents a Graphical User Interface (GUI) application for playing the Numberle game.
  * It initializes the GUI components using Swing utilities and follows the MVC (Model-View-Controller) design pattern.
  * This class sets up the model, controller, and view components required for the game.
+ * The statistics of the player are kept in STATISTICS_FILE, saved every minute and when the application exits.
+ * The length of the equations and the number of attempts can be given on the command line.
+ * Startup shows an empty frame at once, then loads the dictionary, its constraint index and feedback matrix, the
+ * images and fonts, and the statistics in parallel on background threads, and builds the game in the frame once
+ * they are all loaded. The time to the first frame and the time until the game takes input are printed.
+ * Usage: java GUIApp [equation length] [attempts]
  */
 public class GUIApp {
+    /** The file the statistics of the players are kept in, in the working directory. */
+    public static final Path STATISTICS_FILE = Paths.get("statistics.tsv");
+
+    private static final long LAUNCH_NANOS = System.nanoTime(); // When the class was initialised, just before main
+
     public static void main(String[] args) {
 
         javax.swing.SwingUtilities.invokeLater(
                 new Runnable() {
                     public void run() {
-                        createAndShowGUI();
+                        createAndShowGUI(args);
                     }
                 }
         );
     }
 
-    public static void createAndShowGUI() {
-        INumberleModel model = new NumberleModel();
+    public static void createAndShowGUI(String[] args) {
+        JFrame frame = new JFrame("Numberle");
+        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        frame.setSize(720, 650);
+        frame.setResizable(false);
+        frame.add(new JLabel("Loading...", SwingConstants.CENTER));
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowOpened(WindowEvent e) {
+                System.out.printf("First frame in %.0f ms%n", (System.nanoTime() - LAUNCH_NANOS) / 1e6);
+            }
+        });
+        frame.setVisible(true);
+
+        ExecutorService loader = Executors.newFixedThreadPool(4, r -> {
+            Thread thread = new Thread(r, "numberle-startup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        CompletableFuture<GameStatistics> statistics = CompletableFuture.supplyAsync(GUIApp::loadStatistics, loader);
+        CompletableFuture.allOf(
+                CompletableFuture.runAsync(() -> EquationDictionary.getDefault().getConstraintIndex(), loader),
+                CompletableFuture.runAsync(FeedbackMatrix::getDefault, loader),
+                CompletableFuture.runAsync(GameAssets::getDefault, loader),
+                statistics)
+                .whenComplete((loaded, failure) -> {
+                    loader.shutdown();
+                    if (failure != null) {
+                        // Whatever failed is loaded again, or falls back, when the game first uses it
+                        failure.printStackTrace();
+                    }
+                    GameStatistics loadedStatistics = statistics.exceptionally(e -> null).getNow(null);
+                    SwingUtilities.invokeLater(() -> createGame(args, frame, loadedStatistics));
+                });
+    }
+
+    /**
+     * Builds the game in the frame, once everything it uses has been loaded.
+     */
+    private static void createGame(String[] args, JFrame frame, GameStatistics statistics) {
+        NumberleModel model = new NumberleModel();
+        if (args.length > 0) {
+            model.setEquationLength(Integer.parseInt(args[0]));
+        }
+        if (args.length > 1) {
+            model.setMaxAttempts(Integer.parseInt(args[1]));
+        }
+        model.setTraceSink(new ConsoleTraceSink(TraceLevel.DEBUG)); // Print the target and the feedback (flag2)
+        if (statistics == null) {
+            statistics = loadStatistics();
+        }
+        String player = System.getProperty("user.name", "player");
+        model.getEventBus().subscribe(statistics.recorder(player)); // Before the first game starts
         NumberleController controller = new NumberleController(model);
-        NumberleView view = new NumberleView(model, controller);
+        NumberleView view = new NumberleView(model, controller, statistics, player, frame);
+        view.whenShown().thenRun(() -> SwingUtilities.invokeLater(() -> System.out.printf("Interactive in %.0f ms%n",
+                (System.nanoTime() - LAUNCH_NANOS) / 1e6))); // After the game has been laid out and painted
+    }
+
+    private static GameStatistics loadStatistics() {
+        GameStatistics statistics;
+        try {
+            statistics = GameStatistics.load(STATISTICS_FILE);
+        } catch (IOException | IllegalArgumentException e) {
+            e.printStackTrace(); // Start afresh rather than not at all
+            statistics = new GameStatistics();
+        }
+        statistics.saveEvery(STATISTICS_FILE, 1, TimeUnit.MINUTES);
+        Runtime.getRuntime().addShutdownHook(new Thread(statistics::close, "numberle-statistics-close"));
+        return statistics;
     }
 }
\ No newline at end of file
@@ -0,0 +1,99 @@
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * The GameAssets class holds the images and fonts of the graphical user interface, loaded and scaled once.
+ * Images are scaled with Image.SCALE_SMOOTH as before, but drawn into a BufferedImage at load time: a scaled
+ * instance is otherwise only computed when first painted, on the event dispatch thread.
+ * Loading the fonts here also initialises the font system and the glyphs of the symbols, so that the first
+ * frame does not pay for it. The default assets can be loaded on a background thread while the frame is shown.
+ */
+public final class GameAssets {
+    /** The logo shown at the top of the frame. */
+    public static final String LOGO_FILE = "icon.png";
+    /** The icon of the Back key. */
+    public static final String DELETE_ICON_FILE = "deleteIcon.png";
+
+    private final Image logo;
+    private final Image deleteIcon;
+    private final Font digitFont;
+    private final Font symbolFont;
+
+    /**
+     * Holds the default assets, so that they are loaded lazily and exactly once by the class loader.
+     */
+    private static final class DefaultHolder {
+        static final GameAssets INSTANCE = new GameAssets();
+    }
+
+    private GameAssets() {
+        this.logo = loadScaled(LOGO_FILE, 200, 50);
+        this.deleteIcon = loadScaled(DELETE_ICON_FILE, 40, 30);
+        this.digitFont = warm(new Font("Verdana", Font.PLAIN, 20));
+        this.symbolFont = warm(new Font("Verdana", Font.PLAIN, 25));
+    }
+
+    /**
+     * Returns the assets shared by all views, loading them from the working directory on first use.
+     * A missing or unreadable image is printed and replaced by a blank one of the same size.
+     *
+     * @return The shared assets, never null.
+     */
+    public static GameAssets getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    private static Image loadScaled(String file, int width, int height) {
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        try {
+            BufferedImage original = ImageIO.read(new File(file));
+            if (original == null) {
+                throw new IOException("Unsupported image format: " + file);
+            }
+            Graphics2D g2 = scaled.createGraphics();
+            g2.drawImage(original.getScaledInstance(width, height, Image.SCALE_SMOOTH), 0, 0, null);
+            g2.dispose();
+        } catch (IOException e) {
+            // The view then shows a blank image, as a missing ImageIcon did
+            e.printStackTrace();
+        }
+        return scaled;
+    }
+
+    private static Font warm(Font font) {
+        font.getStringBounds(Symbols.ALPHABET, new FontRenderContext(null, true, true));
+        return font;
+    }
+
+    /**
+     * @return The logo, 200 x 50.
+     */
+    public Image getLogo() {
+        return logo;
+    }
+
+    /**
+     * @return The icon of the Back key, 40 x 30.
+     */
+    public Image getDeleteIcon() {
+        return deleteIcon;
+    }
+
+    /**
+     * @return The font of the digit keys.
+     */
+    public Font getDigitFont() {
+        return digitFont;
+    }
+
+    /**
+     * @return The font of the operation keys and of the tiles of the board.
+     */
+    public Font getSymbolFont() {
+        return symbolFont;
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * The GameEvent interface is the type of the events a Numberle model publishes on its GameEventBus.
+ * There is one record per kind of event, each carrying the data listeners need, so that a listener
+ * delivered asynchronously does not have to read the model again, which may already be in a later state.
+ * Feedback is packed 2 bits per position, see Feedback.
+ */
+public sealed interface GameEvent {
+
+    /**
+     * A new game has started.
+     *
+     * @param attempts The number of attempts of the game.
+     * @param target   The target equation, for recording listeners such as GameJournal; never show it to players.
+     */
+    record GameStarted(int attempts, String target) implements GameEvent {
+    }
+
+    /**
+     * A game restored from a snapshot goes on. The manager publishes it once the listeners are subscribed,
+     * since the model cannot publish while it is being restored.
+     *
+     * @param attempts          The number of attempts of the game.
+     * @param remainingAttempts The attempts left.
+     * @param target            The target equation, for recording listeners; never show it to players.
+     */
+    record GameResumed(int attempts, int remainingAttempts, String target) implements GameEvent {
+    }
+
+    /**
+     * A guess was rejected without using up an attempt.
+     *
+     * @param guess  The rejected guess.
+     * @param reason Why it was rejected, one of the REASON constants, which are the codes processInput returns.
+     */
+    record GuessRejected(String guess, int reason) implements GameEvent {
+        public static final int INVALID_LENGTH = 1;
+        public static final int NO_EQUAL = ExpressionEvaluator.NO_EQUAL;
+        public static final int MISSING_SYMBOLS = ExpressionEvaluator.INVALID;
+        public static final int NOT_EQUAL = ExpressionEvaluator.NOT_EQUAL;
+    }
+
+    /**
+     * A guess was scored and the game goes on.
+     *
+     * @param guess             The guess.
+     * @param feedback          The packed feedback of the guess.
+     * @param remainingAttempts The attempts left after the guess.
+     * @param keyboardMasks     The keyboard masks after the guess, see INumberleModel.getKeyboardMask,
+     *                          packed 16 bits per colour: colour c at bit 16 * c.
+     */
+    record GuessScored(String guess, int feedback, int remainingAttempts, long keyboardMasks) implements GameEvent {
+
+        /**
+         * @param color The colour, Feedback.GREEN, ORANGE or GRAY.
+         * @return The characters shown in this colour on the keyboard after the guess, as a mask.
+         */
+        public short keyboardMask(int color) {
+            return (short) (keyboardMasks >>> (color << 4));
+        }
+    }
+
+    /**
+     * A guess was scored and ended the game.
+     *
+     * @param guess             The last guess.
+     * @param feedback          The packed feedback of the last guess, 0 if the game was won.
+     * @param remainingAttempts The attempts left after the last guess.
+     * @param won               Whether the last guess was the target.
+     * @param target            The target equation.
+     */
+    record GameEnded(String guess, int feedback, int remainingAttempts, boolean won, String target)
+            implements GameEvent {
+    }
+}
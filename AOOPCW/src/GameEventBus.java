@@ -0,0 +1,125 @@
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * The GameEventBus class delivers the GameEvents of one model to its listeners.
+ * A listener is either synchronous, called on the publishing thread before publish returns, or asynchronous,
+ * called on an executor. Asynchronous listeners each have their own queue: publishing only adds the event to it
+ * and, if no delivery is pending, submits one task that delivers everything queued by then, in order.
+ * Bursts of events therefore cost one executor task, and a slow listener such as the Swing view
+ * (subscribed with SwingUtilities::invokeLater as its executor) adds no latency to guess processing.
+ * Publishing and subscribing are thread safe. An exception thrown by a listener is printed and does not stop
+ * the delivery to the other listeners.
+ */
+public final class GameEventBus {
+    private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * A listener of the bus. Closing it unsubscribes the listener; events already queued for an asynchronous
+     * listener are dropped.
+     */
+    public final class Subscription implements AutoCloseable {
+        private final Consumer<? super GameEvent> listener;
+        private final Executor executor; // null for synchronous delivery
+        private final ConcurrentLinkedQueue<GameEvent> queue;
+        private final AtomicBoolean scheduled;
+        private volatile boolean closed;
+
+        private Subscription(Consumer<? super GameEvent> listener, Executor executor) {
+            this.listener = listener;
+            this.executor = executor;
+            this.queue = executor == null ? null : new ConcurrentLinkedQueue<>();
+            this.scheduled = executor == null ? null : new AtomicBoolean();
+        }
+
+        private void publish(GameEvent event) {
+            if (executor == null) {
+                deliver(event);
+                return;
+            }
+            queue.add(event);
+            // Only the publisher that flips the flag schedules a delivery; the others ride along
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            GameEvent event;
+            while ((event = queue.poll()) != null) {
+                deliver(event);
+            }
+            scheduled.set(false);
+            // An event queued after the last poll but before the flag was cleared would be stranded
+            if (!queue.isEmpty() && scheduled.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void deliver(GameEvent event) {
+            if (closed) {
+                return;
+            }
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            subscriptions.remove(this);
+        }
+    }
+
+    /**
+     * Subscribes a listener that is called on the publishing thread.
+     *
+     * @param listener The listener.
+     * @return The subscription, to close to unsubscribe.
+     */
+    public Subscription subscribe(Consumer<? super GameEvent> listener) {
+        return add(new Subscription(listener, null));
+    }
+
+    /**
+     * Subscribes a listener that is called on the given executor, in publishing order, with the events
+     * published since its last delivery delivered by one task.
+     *
+     * @param listener The listener.
+     * @param executor The executor delivering the events. At most one delivery task of a subscription is
+     *                 pending at a time, so the listener is never called concurrently, even on a thread pool.
+     * @return The subscription, to close to unsubscribe.
+     */
+    public Subscription subscribe(Consumer<? super GameEvent> listener, Executor executor) {
+        return add(new Subscription(listener, executor));
+    }
+
+    private Subscription add(Subscription subscription) {
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * @return Whether anything listens, so that publishers can skip creating events nobody would receive.
+     */
+    public boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    /**
+     * Delivers an event to every listener.
+     *
+     * @param event The event.
+     */
+    public void publish(GameEvent event) {
+        for (Subscription subscription : subscriptions) {
+            subscription.publish(event);
+        }
+    }
+}
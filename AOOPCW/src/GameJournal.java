@@ -0,0 +1,282 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * The GameJournal class records every guess of every game in an append-only journal, for auditing and analytics.
+ * The journal is a directory of segment files of fixed size, each a sequence of fixed-size records, written
+ * through memory mappings. Appending claims a record number with one atomic increment and writes the record with
+ * absolute puts, so threads append concurrently without locks, system calls or allocation.
+ * A committer thread forces the mapped segments to disk every commit interval, so the records appended in that
+ * interval are made durable together (group commit). When a segment is full the next one is created and mapped;
+ * the committer maps it ahead of time, so appending threads rarely wait for it.
+ * A model is journaled by subscribing a recorder to its GameEventBus; JournalReplay reads the journal back.
+ *
+ * Record layout, little-endian, RECORD_BYTES bytes:
+ *   long  session number
+ *   long  time, in milliseconds since the epoch
+ *   long  equation packed with Symbols.pack: the target of a START or RESUME record or the guess of a GUESS
+ *         record, -1 if it cannot be packed
+ *   int   packed feedback of a scored guess, see Feedback
+ *   byte  result code of processInput for a GUESS record: 0, 5 (game over) or the reason of a rejection;
+ *         the attempts of the game for RESUME
+ *   byte  length of the equation, -1 for a null guess
+ *   byte  attempts left after a scored guess, -1 after a rejected one, the attempts of the game for START,
+ *         or the attempts left for RESUME
+ *   byte  type, START, GUESS or RESUME, written last; 0 marks an empty record
+ * A RESUME record starts the records of a game restored from a snapshot, whose earlier records may be in
+ * another journal or under another session number.
+ * The records end at the last one that is not empty. Empty records before it are holes, left by appends that had
+ * claimed their record number but not finished writing it when the process stopped; they are skipped.
+ */
+public final class GameJournal implements AutoCloseable {
+    /** The size of a record. */
+    public static final int RECORD_BYTES = 32;
+    /** The type of the record of a game starting. */
+    public static final byte START = 1;
+    /** The type of the record of a guess. */
+    public static final byte GUESS = 2;
+    /** The type of the record of a game restored from a snapshot. */
+    public static final byte RESUME = 3;
+
+    static final int SESSION = 0;
+    static final int TIME = 8;
+    static final int EQUATION = 16;
+    static final int FEEDBACK = 24;
+    static final int CODE = 28;
+    static final int LENGTH = 29;
+    static final int ATTEMPTS = 30;
+    static final int TYPE = 31;
+
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".seg";
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final AtomicLong next; // Number of the next record to append
+    private final Map<Long, MappedByteBuffer> segments = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService committer;
+    private volatile boolean closed;
+
+    private GameJournal(Path directory, int recordsPerSegment, long next, long commitIntervalMillis) {
+        this.directory = directory;
+        this.recordsPerSegment = recordsPerSegment;
+        this.next = new AtomicLong(next);
+        this.committer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "numberle-journal-commit");
+            thread.setDaemon(true);
+            return thread;
+        });
+        committer.scheduleWithFixedDelay(this::commitQuietly, commitIntervalMillis, commitIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens a journal, creating the directory if needed, and appends after the records it already holds.
+     *
+     * @param directory            The directory of the segment files.
+     * @param segmentBytes         The size of each new segment file, rounded down to whole records.
+     * @param commitIntervalMillis How often the appended records are forced to disk.
+     * @return The open journal.
+     * @throws IOException If the directory or the last segment cannot be read.
+     */
+    public static GameJournal open(Path directory, int segmentBytes, long commitIntervalMillis) throws IOException {
+        Files.createDirectories(directory);
+        int recordsPerSegment = Math.max(1, segmentBytes / RECORD_BYTES);
+        List<Path> existing = segmentFiles(directory);
+        long next = 0;
+        if (!existing.isEmpty()) {
+            Path last = existing.get(existing.size() - 1);
+            long index = segmentIndex(last);
+            if (Files.size(last) == (long) recordsPerSegment * RECORD_BYTES) {
+                next = index * recordsPerSegment + countRecords(last);
+            } else {
+                next = (index + 1) * recordsPerSegment; // Other segment size: go on in a new segment
+            }
+        }
+        return new GameJournal(directory, recordsPerSegment, next, commitIntervalMillis);
+    }
+
+    /**
+     * Returns the segment files of a journal in the order they were written.
+     *
+     * @param directory The directory of the journal.
+     * @return The segment files, oldest first.
+     * @throws IOException If the directory cannot be read.
+     */
+    public static List<Path> segmentFiles(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        files.sort((a, b) -> Long.compare(segmentIndex(a), segmentIndex(b)));
+        return files;
+    }
+
+    private static long segmentIndex(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private static long countRecords(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            return usedRecords(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Returns the number of records of a segment up to its last one that is not empty, holes included.
+     * Appending resumes after them, so that no record written before a crash is overwritten.
+     *
+     * @param segment The mapped segment.
+     * @return The number of records, 0 if the segment is empty.
+     */
+    static int usedRecords(ByteBuffer segment) {
+        for (int count = segment.capacity() / RECORD_BYTES; count > 0; count--) {
+            if (segment.get((count - 1) * RECORD_BYTES + TYPE) != 0) {
+                return count;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns a listener that journals the events of one model as records of the given session.
+     * Subscribe it synchronously, so that the records of a session are appended in the order of its guesses.
+     *
+     * @param session The number the records of the session are tagged with.
+     * @return The listener.
+     */
+    public Consumer<GameEvent> recorder(long session) {
+        return event -> {
+            if (event instanceof GameEvent.GuessScored scored) {
+                append(session, GUESS, scored.guess(), 0, scored.feedback(), scored.remainingAttempts());
+            } else if (event instanceof GameEvent.GameEnded ended) {
+                append(session, GUESS, ended.guess(), 5, ended.feedback(), ended.remainingAttempts());
+            } else if (event instanceof GameEvent.GuessRejected rejected) {
+                append(session, GUESS, rejected.guess(), rejected.reason(), 0, -1);
+            } else if (event instanceof GameEvent.GameStarted started) {
+                append(session, START, started.target(), 0, 0, started.attempts());
+            } else if (event instanceof GameEvent.GameResumed resumed) {
+                append(session, RESUME, resumed.target(), resumed.attempts(), 0, resumed.remainingAttempts());
+            }
+        };
+    }
+
+    /**
+     * Appends a record. Records of different threads may be appended in any order, but each is whole.
+     *
+     * @throws IllegalStateException If the journal is closed.
+     * @throws UncheckedIOException If a new segment cannot be created.
+     */
+    void append(long session, byte type, String equation, int code, int feedback, int attempts) {
+        if (closed) {
+            throw new IllegalStateException("Journal closed");
+        }
+        long record = next.getAndIncrement();
+        MappedByteBuffer segment = segment(record / recordsPerSegment);
+        int offset = (int) (record % recordsPerSegment) * RECORD_BYTES;
+        segment.putLong(offset + SESSION, session);
+        segment.putLong(offset + TIME, System.currentTimeMillis());
+        segment.putLong(offset + EQUATION, equation == null ? -1 : Symbols.pack(equation));
+        segment.putInt(offset + FEEDBACK, feedback);
+        segment.put(offset + CODE, (byte) code);
+        segment.put(offset + LENGTH, (byte) (equation == null ? -1 : Math.min(equation.length(), Byte.MAX_VALUE)));
+        segment.put(offset + ATTEMPTS, (byte) attempts);
+        segment.put(offset + TYPE, type); // Last, so a record is only seen once complete
+    }
+
+    /**
+     * Returns the mapping of a segment, creating the file and mapping it on first use.
+     */
+    private MappedByteBuffer segment(long index) {
+        MappedByteBuffer segment = segments.get(index);
+        if (segment != null) {
+            return segment;
+        }
+        synchronized (segments) {
+            segment = segments.get(index);
+            if (segment == null) {
+                Path file = directory.resolve(String.format("%s%08d%s", PREFIX, index, SUFFIX));
+                try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+                    long size = (long) recordsPerSegment * RECORD_BYTES;
+                    raf.setLength(size);
+                    segment = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+                    segment.order(ByteOrder.LITTLE_ENDIAN);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                segments.put(index, segment);
+            }
+            return segment;
+        }
+    }
+
+    /**
+     * @return The number of records in the journal, including those of earlier runs and their holes.
+     */
+    public long size() {
+        return next.get();
+    }
+
+    /**
+     * Forces the appended records to disk now, and releases the segments that are full.
+     * The committer calls it every commit interval.
+     */
+    public void commit() {
+        long current = next.get() / recordsPerSegment;
+        for (Iterator<Map.Entry<Long, MappedByteBuffer>> it = segments.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Long, MappedByteBuffer> entry = it.next();
+            entry.getValue().force();
+            // A thread that claimed a record before the roll may still be writing it, so keep one full segment
+            if (entry.getKey() < current - 1) {
+                it.remove();
+            }
+        }
+    }
+
+    private void commitQuietly() {
+        try {
+            commit();
+            // Map the next segment ahead once the current one is half full, so appending does not wait for it
+            long record = next.get();
+            if (!closed && record % recordsPerSegment >= recordsPerSegment / 2) {
+                segment(record / recordsPerSegment + 1);
+            }
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Stops the committer and forces the appended records to disk. Appending afterwards throws.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        committer.shutdown();
+        try {
+            committer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        commit();
+    }
+}
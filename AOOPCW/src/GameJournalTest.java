@@ -0,0 +1,144 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameJournalTest {
+    private static final int SEGMENT_BYTES = 4 * GameJournal.RECORD_BYTES;
+
+    @TempDir
+    Path directory;
+    private GameJournal journal;
+
+    @AfterEach
+    public void tearDown() {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /**
+     * Tests that records appended past the end of a segment go on in the next one and are read back in order.
+     * -----------------------------------------------------------------------------------------------------------------
+     * @ ensures GameJournal.segmentFiles(directory).size() == 3;
+     * @ ensures JournalReplay.forEach(directory, visitor) == 10;
+     *
+     * @post Ten records of four per segment fill three segments, and come back with their fields, oldest first.
+     */
+    @Test
+    public void testAppendAcrossSegments() throws IOException {
+        journal = GameJournal.open(directory, SEGMENT_BYTES, 1000);
+        for (int session = 0; session < 10; session++) {
+            journal.append(session, GameJournal.GUESS, "1+2+3=6", 0, 0, 5);
+        }
+        assertEquals(10, journal.size());
+        journal.close();
+        assertEquals(3, GameJournal.segmentFiles(directory).size());
+
+        List<Long> sessions = new ArrayList<>();
+        long records = JournalReplay.forEach(directory, (session, time, type, equation, length, code, feedback,
+                                                         attempts) -> {
+            sessions.add(session);
+            assertEquals(GameJournal.GUESS, type);
+            assertEquals(Symbols.pack("1+2+3=6"), equation);
+            assertEquals(7, length);
+            assertEquals(5, attempts);
+        });
+        assertEquals(10, records);
+        assertEquals(List.of(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L), sessions);
+    }
+
+    /**
+     * Tests reopening a journal whose last run stopped in the middle of appends: one record is a hole,
+     * and the last one was written except for its type.
+     * -----------------------------------------------------------------------------------------------------------------
+     * @ ensures journal.size() == 3;
+     *
+     * @post Appending resumes after the last complete record, overwriting the partial one,
+     *       and reading skips the hole.
+     */
+    @Test
+    public void testReopenAfterPartialRecord() throws IOException {
+        journal = GameJournal.open(directory, SEGMENT_BYTES, 1000);
+        for (int session = 1; session <= 3; session++) {
+            journal.append(session, GameJournal.GUESS, "1+2+3=6", 0, 0, 5);
+        }
+        journal.close();
+        Path segment = GameJournal.segmentFiles(directory).get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.put(GameJournal.RECORD_BYTES + GameJournal.TYPE, (byte) 0); // The second record is a hole
+            buffer.putLong(3 * GameJournal.RECORD_BYTES + GameJournal.SESSION, 99); // A partial fourth record
+            buffer.force();
+        }
+
+        journal = GameJournal.open(directory, SEGMENT_BYTES, 1000);
+        assertEquals(3, journal.size());
+        journal.append(4, GameJournal.GUESS, "1+2+3=6", 0, 0, 4);
+        journal.close();
+
+        List<Long> sessions = new ArrayList<>();
+        long records = JournalReplay.forEach(directory, (session, time, type, equation, length, code, feedback,
+                                                         attempts) -> sessions.add(session));
+        assertEquals(3, records);
+        assertEquals(List.of(1L, 3L, 4L), sessions);
+        assertEquals(1, GameJournal.segmentFiles(directory).size());
+    }
+
+    /**
+     * Tests that replaying a journal with --rebuild gives back the result of every guess: a game suspended
+     * to a snapshot, its rest after the restore, and a lost game with fewer attempts.
+     * -----------------------------------------------------------------------------------------------------------------
+     * @ ensures statistics.getMismatches() == 0;
+     *
+     * @post Every guess is replayed with its recorded result and feedback, and the resumed game is counted as
+     *       won in three guesses, two before the snapshot and one after.
+     */
+    @Test
+    public void testRebuild() throws IOException {
+        journal = GameJournal.open(directory, 4096, 1000);
+        NumberleModel model = new NumberleModel();
+        model.setRandom(false);
+        model.getEventBus().subscribe(journal.recorder(1));
+        model.startNewGame();
+        model.processInput("1+2+3=7"); // Rejected
+        model.processInput("3+2+2=7");
+        model.processInput("2*8-9=7");
+        ByteBuffer snapshot = ByteBuffer.allocate(GameSnapshot.MAX_BYTES);
+        model.writeSnapshot(snapshot);
+        snapshot.flip();
+
+        NumberleModel restored = new NumberleModel(EquationDictionary.getDefault(), snapshot);
+        restored.getEventBus().subscribe(journal.recorder(2));
+        restored.resume();
+        assertEquals(5, restored.processInput("1+2+3=6"));
+
+        NumberleModel lost = new NumberleModel();
+        lost.setRandom(false);
+        lost.setMaxAttempts(3);
+        lost.getEventBus().subscribe(journal.recorder(3));
+        lost.startNewGame();
+        lost.processInput("3+2+2=7");
+        lost.processInput("2*8-9=7");
+        assertEquals(5, lost.processInput("4*2-1=7"));
+        journal.close();
+
+        JournalReplay.Statistics statistics = new JournalReplay.Statistics(EquationDictionary.getDefault());
+        assertEquals(10, JournalReplay.forEach(directory, statistics));
+        assertEquals(7, statistics.getReplayed());
+        assertEquals(0, statistics.getMismatches());
+        assertEquals(1, statistics.getWins(3));
+    }
+}
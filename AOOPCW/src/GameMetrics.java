@@ -0,0 +1,213 @@
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * The GameMetrics class instruments the game engine of the whole JVM: latency histograms of processInput,
+ * evaluateExpression and startNewGame, a counter per processInput result code, and the dictionary load time.
+ * Metrics are off unless the JVM is started with -Dnumberle.metrics=true or they are enabled later, for example
+ * from JMX. When off, the model only reads one volatile flag per call; when on, it reads the clock twice and
+ * records into lock-free striped counters, without allocating.
+ * The metrics can be read through the GameMetricsMXBean, once registered, and dumped as text periodically.
+ */
+public final class GameMetrics implements GameMetricsMXBean {
+    /** The name of the MXBean. */
+    public static final String OBJECT_NAME = "numberle:type=GameMetrics";
+
+    private static final GameMetrics INSTANCE = new GameMetrics();
+    private static volatile boolean enabled = Boolean.getBoolean("numberle.metrics");
+
+    private final LatencyHistogram processInput = new LatencyHistogram();
+    private final LatencyHistogram evaluateExpression = new LatencyHistogram();
+    private final LatencyHistogram startNewGame = new LatencyHistogram();
+    private final LongAdder[] resultCodes = new LongAdder[6];
+    private volatile long dictionaryLoadNanos;
+    private final LongAdder dictionaryLoads = new LongAdder();
+    private volatile ValidationCache validationCache;
+    private ScheduledExecutorService dumper;
+
+    private GameMetrics() {
+        for (int i = 0; i < resultCodes.length; i++) {
+            resultCodes[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @return The metrics of this JVM.
+     */
+    public static GameMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Tells whether the model should measure its calls. It is checked on every call, so keep it cheap.
+     *
+     * @return Whether metrics are on.
+     */
+    public static boolean on() {
+        return enabled;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        GameMetrics.enabled = enabled;
+    }
+
+    /**
+     * Records a call of processInput.
+     *
+     * @param code  The result code it returned.
+     * @param nanos How long it took.
+     */
+    void processInput(int code, long nanos) {
+        processInput.record(nanos);
+        if (code >= 0 && code < resultCodes.length) {
+            resultCodes[code].increment();
+        }
+    }
+
+    void evaluateExpression(long nanos) {
+        evaluateExpression.record(nanos);
+    }
+
+    void startNewGame(long nanos) {
+        startNewGame.record(nanos);
+    }
+
+    /**
+     * Records that a dictionary was loaded. Loading is rare, so it is recorded even when metrics are off.
+     *
+     * @param nanos How long it took.
+     */
+    void dictionaryLoaded(long nanos) {
+        dictionaryLoadNanos = nanos;
+        dictionaryLoads.increment();
+    }
+
+    @Override
+    public Map<String, Long> getProcessInputLatency() {
+        return processInput.summary();
+    }
+
+    @Override
+    public Map<String, Long> getEvaluateExpressionLatency() {
+        return evaluateExpression.summary();
+    }
+
+    @Override
+    public Map<String, Long> getStartNewGameLatency() {
+        return startNewGame.summary();
+    }
+
+    @Override
+    public Map<String, Long> getResultCodes() {
+        Map<String, Long> codes = new LinkedHashMap<>();
+        for (int code = 0; code < resultCodes.length; code++) {
+            codes.put(Integer.toString(code), resultCodes[code].sum());
+        }
+        return codes;
+    }
+
+    @Override
+    public long getDictionaryLoadNanos() {
+        return dictionaryLoadNanos;
+    }
+
+    @Override
+    public long getDictionaryLoads() {
+        return dictionaryLoads.sum();
+    }
+
+    /**
+     * Sets the validation cache whose counters are reported. Its counters are always kept, whether metrics are on
+     * or off.
+     *
+     * @param validationCache The cache, or null for none.
+     */
+    public void setValidationCache(ValidationCache validationCache) {
+        this.validationCache = validationCache;
+    }
+
+    @Override
+    public Map<String, Long> getValidationCache() {
+        ValidationCache cache = validationCache;
+        return cache == null ? new LinkedHashMap<>() : cache.stats();
+    }
+
+    @Override
+    public String dump() {
+        ValidationCache cache = validationCache;
+        return "metrics " + (enabled ? "on" : "off")
+                + "\nprocessInput " + processInput
+                + "\nevaluateExpression " + evaluateExpression
+                + "\nstartNewGame " + startNewGame
+                + "\nresult codes " + getResultCodes()
+                + "\ndictionary loaded " + dictionaryLoads.sum() + " times, last in "
+                + String.format("%.1f", dictionaryLoadNanos / 1e6) + " ms"
+                + (cache == null ? "" : "\nvalidation cache " + cache);
+    }
+
+    /**
+     * Clears the latencies and the result counters, but not the dictionary load time.
+     */
+    @Override
+    public void reset() {
+        processInput.reset();
+        evaluateExpression.reset();
+        startNewGame.reset();
+        for (LongAdder counter : resultCodes) {
+            counter.reset();
+        }
+    }
+
+    /**
+     * Registers the MXBean with the platform MBean server, if it is not registered yet.
+     * Errors are printed, the metrics still work without JMX.
+     */
+    public static void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // Already registered
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Prints the dump to a stream periodically from a background thread, while metrics are on.
+     *
+     * @param out    The stream.
+     * @param period The time between dumps.
+     * @param unit   The unit of period.
+     * @return The task, cancel it to stop dumping.
+     */
+    public synchronized ScheduledFuture<?> dumpEvery(PrintStream out, long period, TimeUnit unit) {
+        if (dumper == null) {
+            dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "numberle-metrics-dump");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return dumper.scheduleAtFixedRate(() -> {
+            if (enabled) {
+                out.println(dump());
+            }
+        }, period, period, unit);
+    }
+}
@@ -0,0 +1,38 @@
+import java.util.Map;
+
+/**
+ * The management interface of GameMetrics, as shown by JMX clients such as JConsole under "numberle:type=GameMetrics".
+ * Latencies are summaries of a LatencyHistogram, in nanoseconds.
+ */
+public interface GameMetricsMXBean {
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    Map<String, Long> getProcessInputLatency();
+
+    Map<String, Long> getEvaluateExpressionLatency();
+
+    Map<String, Long> getStartNewGameLatency();
+
+    /**
+     * @return The number of guesses per processInput result code, 0 to 5.
+     */
+    Map<String, Long> getResultCodes();
+
+    long getDictionaryLoadNanos();
+
+    long getDictionaryLoads();
+
+    /**
+     * @return The hits, misses, hit rate and size of the validation cache, empty if none is set.
+     */
+    Map<String, Long> getValidationCache();
+
+    /**
+     * @return All the metrics as text, one line each.
+     */
+    String dump();
+
+    void reset();
+}
@@ -0,0 +1,255 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The GameServer class serves Numberle games over TCP with the same line protocol as CLIApp:
+ * each connection plays one game, sending one guess per line and receiving the messages, unused characters,
+ * colours and attempts left after each one. Each connection is a session of a GameSessionManager.
+ * Connections are handled on virtual threads when the JVM has them (Java 21 or later), so one JVM can hold
+ * tens of thousands of players, and on a cached pool of platform threads otherwise.
+ * The maximum number of connections, the idle timeout and the statistics interval are configurable.
+ * Connections over the maximum are refused with a message, and connections that send nothing for the idle
+ * timeout are closed. The connection counts and the per-guess latency are printed every statistics interval.
+ * If a trace file is given, every game and guess is traced to it through a RingBufferTraceSink,
+ * and if a journal directory is given, every guess is recorded in a GameJournal there.
+ * The GameMetrics MXBean is registered for JMX clients, and while metrics are on (-Dnumberle.metrics=true, or
+ * enabled over JMX) the engine metrics are printed every statistics interval too.
+ * Usage: java GameServer [port] [max connections] [idle timeout seconds] [statistics interval seconds] [trace file]
+ *        [journal directory]
+ */
+public final class GameServer implements AutoCloseable {
+    private final int maxConnections;
+    private final int idleTimeoutMillis;
+    private final ServerSocket serverSocket;
+    private final GameSessionManager sessions;
+    private final ExecutorService executor;
+    private final Semaphore connectionPermits;
+    private final AtomicLong nextSessionId = new AtomicLong();
+    private final Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+
+    // Statistics, updated by every connection thread
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder refused = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder active = new LongAdder();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder requestNanos = new LongAdder();
+    private final LongAccumulator maxRequestNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Binds the server to a port of the loopback address. Call serve() to start accepting connections.
+     *
+     * @param port              The port, or 0 for any free port.
+     * @param maxConnections    The maximum number of players connected at the same time.
+     * @param idleTimeoutMillis How long a connection may send nothing before it is closed.
+     * @param dictionary        The dictionary the games are drawn from.
+     * @throws IOException If the port cannot be bound.
+     */
+    public GameServer(int port, int maxConnections, int idleTimeoutMillis, EquationDictionary dictionary)
+            throws IOException {
+        this.maxConnections = maxConnections;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        // Sessions are removed when their connection closes; the manager's expiry only catches leaks
+        this.sessions = new GameSessionManager(dictionary, 2L * idleTimeoutMillis, TimeUnit.MILLISECONDS,
+                Math.min(maxConnections, 1 << 16));
+        this.executor = newConnectionExecutor();
+        this.connectionPermits = new Semaphore(maxConnections);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 4700;
+        int maxConnections = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int idleTimeoutSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 300;
+        int statsSeconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        RingBufferTraceSink trace = args.length > 4 && !args[4].isEmpty()
+                ? new RingBufferTraceSink(Paths.get(args[4]), TraceLevel.DEBUG, 1 << 16) : null;
+        GameJournal journal = args.length > 5 ? GameJournal.open(Paths.get(args[5]), 64 << 20, 100) : null;
+        try (GameServer server = new GameServer(port, maxConnections, idleTimeoutSeconds * 1000,
+                EquationDictionary.getDefault())) {
+            server.sessions.setTraceSink(trace);
+            server.sessions.setJournal(journal);
+            // Every connection shares one cache, so popular guesses are validated once for all players
+            ValidationCache validationCache = new ValidationCache(ValidationCache.DEFAULT_CAPACITY);
+            server.sessions.setValidationCache(validationCache);
+            GameMetrics.get().setValidationCache(validationCache);
+            System.out.println("Numberle server listening on " + server.serverSocket.getLocalSocketAddress()
+                    + ", at most " + maxConnections + " connections, idle timeout " + idleTimeoutSeconds + " s");
+            Thread stats = new Thread(() -> {
+                try {
+                    while (true) {
+                        Thread.sleep(statsSeconds * 1000L);
+                        System.out.println(server.getStatistics());
+                    }
+                } catch (InterruptedException e) {
+                    // Server closing
+                }
+            }, "numberle-server-stats");
+            stats.setDaemon(true);
+            stats.start();
+            GameMetrics.registerMBean();
+            GameMetrics.get().dumpEvery(System.out, statsSeconds, TimeUnit.SECONDS);
+            server.serve();
+        } finally {
+            if (trace != null) {
+                trace.close();
+            }
+            if (journal != null) {
+                journal.close();
+            }
+        }
+    }
+
+    /**
+     * Creates an executor that runs each task on a new virtual thread. Virtual threads came with Java 21,
+     * so the factory method is looked up reflectively and a cached pool of platform threads is used on older
+     * JVMs, where the server works the same but holds fewer connections.
+     */
+    private static ExecutorService newConnectionExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(r, "numberle-connection");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * @return The port the server listens on.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accepts connections until the server is closed.
+     *
+     * @throws IOException If accepting fails for another reason than the server being closed.
+     */
+    public void serve() throws IOException {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (serverSocket.isClosed()) {
+                    return;
+                }
+                throw e;
+            }
+            if (!connectionPermits.tryAcquire()) {
+                refused.increment();
+                refuse(socket);
+                continue;
+            }
+            accepted.increment();
+            executor.execute(() -> {
+                active.increment();
+                try {
+                    handle(socket);
+                } finally {
+                    active.decrement();
+                    connectionPermits.release();
+                }
+            });
+        }
+    }
+
+    /**
+     * Plays one game on a connection, then closes it.
+     */
+    private void handle(Socket socket) {
+        String sessionId = Long.toString(nextSessionId.incrementAndGet());
+        openSockets.add(socket);
+        try (Socket s = socket) {
+            s.setSoTimeout(idleTimeoutMillis);
+            s.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+            PrintWriter out = new PrintWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8));
+            GameSession session = sessions.create(sessionId);
+            CLIApp.play(session, in, out, nanos -> {
+                requests.increment();
+                requestNanos.add(nanos);
+                maxRequestNanos.accumulate(nanos);
+            });
+        } catch (SocketTimeoutException e) {
+            timedOut.increment();
+        } catch (IOException | IllegalStateException e) {
+            // The player disconnected, or the session expired; nothing more to do for this connection
+        } finally {
+            openSockets.remove(socket);
+            sessions.remove(sessionId);
+        }
+    }
+
+    private static void refuse(Socket socket) {
+        try (Socket s = socket) {
+            s.getOutputStream().write("Server full, try again later.\r\n".getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            // The player has gone already
+        }
+    }
+
+    /**
+     * @return A one-line summary of the connections and the guess latency since the server started.
+     */
+    public String getStatistics() {
+        long count = requests.sum();
+        double meanMicros = count == 0 ? 0 : requestNanos.sum() / 1e3 / count;
+        return String.format("connections: %d active (max %d), %d accepted, %d refused, %d timed out; "
+                        + "guesses: %d, mean %.1f us, max %.1f us",
+                active.sum(), maxConnections, accepted.sum(), refused.sum(), timedOut.sum(),
+                count, meanMicros, maxRequestNanos.get() / 1e3);
+    }
+
+    public long getActiveConnections() {
+        return active.sum();
+    }
+
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * Stops accepting connections, and closes the open ones.
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        executor.shutdownNow();
+        // Blocked socket reads do not notice interrupts, so close the sockets to end the connections
+        for (Socket socket : openSockets) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Closing anyway
+            }
+        }
+        sessions.close();
+    }
+}
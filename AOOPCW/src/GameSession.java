@@ -0,0 +1,365 @@
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The GameSession class is one game hosted by a GameSessionManager.
+ * It implements INumberleModel by delegating to its own NumberleModel under its own lock, so calls on
+ * different sessions never contend, while calls on the same session from several threads are serialised.
+ * Controllers and command-line front ends can therefore attach to a session like to any other model.
+ * Once the session has expired or been removed from its manager, every call throws IllegalStateException.
+ * Mutable objects returned by the getters, such as getCurrentGuess(), must only be used by one thread.
+ */
+public final class GameSession implements INumberleModel {
+    private final String id;
+    private final long number;
+    private final NumberleModel model;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final long createdNanos;
+    private volatile long lastAccessNanos;
+    private volatile boolean closed;
+
+    GameSession(String id, long number, NumberleModel model) {
+        this.id = id;
+        this.number = number;
+        this.model = model;
+        this.createdNanos = System.nanoTime();
+        this.lastAccessNanos = createdNanos;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return The number of the session, unique within its manager, which tags its records in a GameJournal.
+     */
+    public long getNumber() {
+        return number;
+    }
+
+    /**
+     * @return How long the session has not been used, in the given unit.
+     */
+    public long getIdleTime(TimeUnit unit) {
+        return unit.convert(System.nanoTime() - lastAccessNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return How long ago the session was created, in the given unit.
+     */
+    public long getAge(TimeUnit unit) {
+        return unit.convert(System.nanoTime() - createdNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Closes the session if it has been idle for at least the given time and no call is in progress.
+     * Called by the manager when it expires idle sessions.
+     *
+     * @return true if the session is now closed.
+     */
+    boolean closeIfIdle(long idleNanos) {
+        if (!lock.tryLock()) {
+            return false; // In use, so not idle
+        }
+        try {
+            if (System.nanoTime() - lastAccessNanos >= idleNanos) {
+                closed = true;
+            }
+            return closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void close() {
+        lock.lock();
+        try {
+            closed = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes the session lock before the manager publishes the session, so that the manager can start or resume
+     * its game before any other call reaches the model. The manager calls release in a finally block.
+     */
+    void hold() {
+        lock.lock();
+    }
+
+    void release() {
+        lock.unlock();
+    }
+
+    /**
+     * Takes the session lock and records the access. Callers must unlock in a finally block.
+     */
+    private void enter() {
+        lock.lock();
+        if (closed) {
+            lock.unlock();
+            throw new IllegalStateException("Session " + id + " has expired");
+        }
+        lastAccessNanos = System.nanoTime();
+    }
+
+    @Override
+    public void initialize() {
+        enter();
+        try {
+            model.initialize();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int processInput(String input) {
+        enter();
+        try {
+            return model.processInput(input);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isGameOver() {
+        enter();
+        try {
+            return model.isGameOver();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isGameWon() {
+        enter();
+        try {
+            return model.isGameWon();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String getTargetNumber() {
+        enter();
+        try {
+            return model.getTargetNumber();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public StringBuilder getCurrentGuess() {
+        enter();
+        try {
+            return model.getCurrentGuess();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int getRemainingAttempts() {
+        enter();
+        try {
+            return model.getRemainingAttempts();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void startNewGame() {
+        enter();
+        try {
+            model.startNewGame();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int evaluateExpression(String expression) {
+        enter();
+        try {
+            return model.evaluateExpression(expression);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void setRandom(boolean random) {
+        enter();
+        try {
+            model.setRandom(random);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void setEquationLength(int length) {
+        enter();
+        try {
+            model.setEquationLength(length);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void setMaxAttempts(int attempts) {
+        enter();
+        try {
+            model.setMaxAttempts(attempts);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int getEquationLength() {
+        enter();
+        try {
+            return model.getEquationLength();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int getMaxAttempts() {
+        enter();
+        try {
+            return model.getMaxAttempts();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Character> getUnusedCharacters() {
+        enter();
+        try {
+            return model.getUnusedCharacters();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public ArrayList<String> getColors() {
+        enter();
+        try {
+            return new ArrayList<>(model.getColors());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int getFeedback() {
+        enter();
+        try {
+            return model.getFeedback();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Map<String, Set<Character>> getMap() {
+        enter();
+        try {
+            return model.getMap();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public short getKeyboardMask(int color) {
+        enter();
+        try {
+            return model.getKeyboardMask(color);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String getColorCharacters() {
+        enter();
+        try {
+            return model.getColorCharacters();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCandidateCount() {
+        enter();
+        try {
+            return model.remainingCandidateCount();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes a snapshot of the session's game, to resume it later with GameSessionManager.restore.
+     *
+     * @param out The buffer to write to, see NumberleModel.writeSnapshot.
+     */
+    public void writeSnapshot(ByteBuffer out) {
+        enter();
+        try {
+            model.writeSnapshot(out);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the event bus of the session's model. The bus is thread safe, so no lock is taken,
+     * and listeners can subscribe to a session even after it has expired.
+     */
+    @Override
+    public GameEventBus getEventBus() {
+        return model.getEventBus();
+    }
+
+    /**
+     * Returns the remaining candidates as a list copied under the session lock,
+     * since iterating the model's bitset while another thread guesses would not be safe.
+     */
+    @Override
+    public Iterator<String> remainingCandidates() {
+        enter();
+        try {
+            List<String> candidates = new ArrayList<>();
+            model.remainingCandidates().forEachRemaining(candidates::add);
+            return candidates.iterator();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
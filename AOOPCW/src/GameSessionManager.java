@@ -0,0 +1,245 @@
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The GameSessionManager class hosts many independent games, keyed by session id.
+ * Sessions are held in a ConcurrentHashMap and each one has its own lock (see GameSession), so guesses on
+ * different sessions never contend and no global lock is needed around the models.
+ * Sessions that have not been used for the idle timeout are expired by a background sweeper; a call on an
+ * expired session throws IllegalStateException, and a new session can then be created under the same id.
+ * All models share the manager's immutable EquationDictionary and its TraceSink, which traces nothing by default.
+ * If a GameJournal is set, every guess of the sessions created from then on is journaled under the session number,
+ * and if GameStatistics are set, their finished games are recorded as games of the player named by the session id.
+ */
+public final class GameSessionManager implements AutoCloseable {
+    private final ConcurrentHashMap<String, GameSession> sessions;
+    private final EquationDictionary dictionary;
+    private final long idleTimeoutNanos;
+    private final ScheduledExecutorService sweeper;
+    private volatile TraceSink traceSink = TraceSink.NOOP;
+    private volatile GameJournal journal;
+    private volatile GameStatistics statistics;
+    private volatile ValidationCache validationCache;
+    private final AtomicLong nextNumber = new AtomicLong();
+
+    /**
+     * Creates a manager using the default dictionary.
+     *
+     * @param idleTimeout How long a session may stay unused before it expires.
+     * @param unit        The unit of idleTimeout.
+     */
+    public GameSessionManager(long idleTimeout, TimeUnit unit) {
+        this(EquationDictionary.getDefault(), idleTimeout, unit, 1024);
+    }
+
+    /**
+     * Creates a manager.
+     *
+     * @param dictionary       The dictionary shared by the models of all sessions.
+     * @param idleTimeout      How long a session may stay unused before it expires.
+     * @param unit             The unit of idleTimeout.
+     * @param expectedSessions The expected number of concurrent sessions, used to size the session map.
+     */
+    public GameSessionManager(EquationDictionary dictionary, long idleTimeout, TimeUnit unit, int expectedSessions) {
+        this.dictionary = dictionary;
+        this.idleTimeoutNanos = unit.toNanos(idleTimeout);
+        this.sessions = new ConcurrentHashMap<>(expectedSessions);
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "numberle-session-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Sweep a few times per timeout, so sessions expire at most a quarter of the timeout late
+        long period = Math.max(1, idleTimeoutNanos / 4);
+        sweeper.scheduleAtFixedRate(this::expireIdleSessions, period, period, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Creates a session and starts its first game.
+     *
+     * @param id The session id.
+     * @return The new session.
+     * @throws IllegalStateException If a live session with this id already exists.
+     */
+    public GameSession create(String id) {
+        NumberleModel model = new NumberleModel(dictionary);
+        return add(id, model, model::startNewGame);
+    }
+
+    /**
+     * Creates a session that resumes a game from a snapshot written by GameSession.writeSnapshot.
+     * Together with remove, this suspends a session without keeping its model in memory.
+     *
+     * @param id       The session id.
+     * @param snapshot The snapshot, read from its position.
+     * @return The new session.
+     * @throws IllegalStateException    If a live session with this id already exists.
+     * @throws IllegalArgumentException If the snapshot cannot be read.
+     */
+    public GameSession restore(String id, ByteBuffer snapshot) {
+        NumberleModel model = new NumberleModel(dictionary, snapshot);
+        return add(id, model, model::resume);
+    }
+
+    /**
+     * Adds a session for a new model, then starts or resumes its game.
+     * The model is built and subscribed outside the session map, and the game begins only once the id is claimed,
+     * so a rejected id journals no game and no journal or statistics work runs under a lock of the map.
+     * The session lock is held from before the session is visible until its game has begun, so that no other call
+     * reaches the model before.
+     *
+     * @param begin Starts or resumes the game of the model, publishing its first event.
+     * @throws IllegalStateException If a live session with this id already exists.
+     */
+    private GameSession add(String id, NumberleModel model, Runnable begin) {
+        model.setTraceSink(traceSink);
+        model.setValidationCache(validationCache);
+        long number = nextNumber.incrementAndGet();
+        GameJournal journal = this.journal;
+        if (journal != null) {
+            model.getEventBus().subscribe(journal.recorder(number)); // Before the game begins, to record its target
+        }
+        GameStatistics statistics = this.statistics;
+        if (statistics != null) {
+            model.getEventBus().subscribe(statistics.recorder(id)); // Before the game begins, to see its attempts
+        }
+        GameSession session = new GameSession(id, number, model);
+        session.hold();
+        try {
+            GameSession existing = sessions.putIfAbsent(id, session);
+            if (existing != null && (!existing.isClosed() || !sessions.replace(id, existing, session))) {
+                throw new IllegalStateException("Session " + id + " already exists");
+            }
+            try {
+                begin.run();
+            } catch (RuntimeException e) {
+                sessions.remove(id, session);
+                session.close();
+                throw e;
+            }
+        } finally {
+            session.release();
+        }
+        return session;
+    }
+
+    /**
+     * Returns the session with this id, creating it and starting its first game if there is none.
+     *
+     * @param id The session id.
+     * @return The live session.
+     */
+    public GameSession getOrCreate(String id) {
+        GameSession session = get(id);
+        while (session == null) {
+            try {
+                session = create(id);
+            } catch (IllegalStateException e) {
+                session = get(id); // Created by another thread meanwhile, unless it has expired again since
+            }
+        }
+        return session;
+    }
+
+    /**
+     * Returns the session with this id.
+     *
+     * @param id The session id.
+     * @return The live session, or null if there is none or it has expired.
+     */
+    public GameSession get(String id) {
+        GameSession session = sessions.get(id);
+        return session == null || session.isClosed() ? null : session;
+    }
+
+    /**
+     * Ends a session and removes it.
+     *
+     * @param id The session id.
+     * @return true if a session was removed.
+     */
+    public boolean remove(String id) {
+        GameSession session = sessions.remove(id);
+        if (session == null) {
+            return false;
+        }
+        session.close();
+        return true;
+    }
+
+    /**
+     * Sets the sink the models of the sessions created from now on trace to.
+     *
+     * @param traceSink A thread safe sink, such as a RingBufferTraceSink, or null for none.
+     */
+    public void setTraceSink(TraceSink traceSink) {
+        this.traceSink = traceSink == null ? TraceSink.NOOP : traceSink;
+    }
+
+    /**
+     * Sets the journal the sessions created from now on record their guesses in.
+     *
+     * @param journal The journal, or null for none.
+     */
+    public void setJournal(GameJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Sets the statistics the sessions created from now on record their finished games in.
+     * Each session records under its id, so a client that keeps its id across games builds up its own statistics.
+     *
+     * @param statistics The statistics, or null for none.
+     */
+    public void setStatistics(GameStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /**
+     * Sets the cache the models of the sessions created from now on validate their guesses with.
+     *
+     * @param validationCache The cache shared by the sessions, or null for none.
+     */
+    public void setValidationCache(ValidationCache validationCache) {
+        this.validationCache = validationCache;
+    }
+
+    /**
+     * @return The number of sessions currently hosted.
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Removes the sessions that have been idle for longer than the timeout. Sessions in the middle of a call
+     * are skipped. This runs periodically in the background, and can also be called directly.
+     *
+     * @return The number of sessions removed.
+     */
+    public int expireIdleSessions() {
+        int expired = 0;
+        for (GameSession session : sessions.values()) {
+            if (session.closeIfIdle(idleTimeoutNanos) && sessions.remove(session.getId(), session)) {
+                expired++;
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Stops the sweeper and closes every session.
+     */
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+        for (GameSession session : sessions.values()) {
+            session.close();
+        }
+        sessions.clear();
+    }
+}
@@ -0,0 +1,138 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameSessionManagerTest {
+    @TempDir
+    Path directory;
+    private GameSessionManager manager;
+    private GameJournal journal;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        manager = new GameSessionManager(EquationDictionary.getDefault(), 1, TimeUnit.HOURS, 16);
+        journal = GameJournal.open(directory, 4096, 1000);
+        manager.setJournal(journal);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        manager.close();
+        journal.close();
+    }
+
+    /**
+     * Tests creating a session, and creating another one under the same id.
+     * -----------------------------------------------------------------------------------------------------------------
+     * @ ensures manager.get("alice") == session;
+     * @ ensures journal.size() == 2;
+     *
+     * @post The session plays a started game. The second create throws IllegalStateException, leaves the first
+     *       session in place and journals no game.
+     */
+    @Test
+    public void testCreate() {
+        GameSession session = manager.create("alice");
+        assertSame(session, manager.get("alice"));
+        assertEquals(1, manager.size());
+        assertEquals(NumberleModel.MAX_ATTEMPTS, session.getRemainingAttempts());
+        assertEquals(0, session.processInput("3+2+2=7"));
+        assertEquals(2, journal.size()); // Its START and the guess
+
+        assertThrows(IllegalStateException.class, () -> manager.create("alice"));
+        assertSame(session, manager.get("alice"));
+        assertEquals(2, journal.size());
+        assertNotEquals(session.getNumber(), manager.create("bob").getNumber());
+    }
+
+    /**
+     * Tests that getOrCreate returns the live session, from any number of threads at once.
+     * -----------------------------------------------------------------------------------------------------------------
+     * @ ensures journal.size() == 1;
+     *
+     * @post Every thread gets the same session, and only one game is started.
+     */
+    @Test
+    public void testGetOrCreate() throws Exception {
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<GameSession>> sessions = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                sessions.add(threads.submit(() -> manager.getOrCreate("alice")));
+            }
+            GameSession session = sessions.get(0).get();
+            for (Future<GameSession> other : sessions) {
+                assertSame(session, other.get());
+            }
+        } finally {
+            threads.shutdown();
+        }
+        assertEquals(1, manager.size());
+        assertEquals(1, journal.size());
+    }
+
+    /**
+     * Tests that the sweep expires idle sessions and frees their ids.
+     * -----------------------------------------------------------------------------------------------------------------
+     * @ ensures manager.size() == 0;
+     *
+     * @post A call on the expired session throws IllegalStateException, and a new session can take its id.
+     */
+    @Test
+    public void testExpireIdleSessions() throws InterruptedException {
+        manager.close();
+        manager = new GameSessionManager(EquationDictionary.getDefault(), 1, TimeUnit.MILLISECONDS, 16);
+        GameSession session = manager.create("alice");
+        Thread.sleep(10);
+        manager.expireIdleSessions(); // The sweeper may have expired it already
+        assertEquals(0, manager.size());
+        assertNull(manager.get("alice"));
+        assertTrue(session.isClosed());
+        assertThrows(IllegalStateException.class, () -> session.processInput("3+2+2=7"));
+        assertNotSame(session, manager.create("alice"));
+    }
+
+    /**
+     * Tests suspending a session with a snapshot and remove, and resuming it with restore.
+     * -----------------------------------------------------------------------------------------------------------------
+     * @ ensures manager.remove("alice");
+     * @ ensures !manager.remove("alice");
+     *
+     * @post The restored session goes on with the same target and attempts left, under a new session number.
+     *       Restoring over a live session throws IllegalStateException.
+     */
+    @Test
+    public void testRestoreAndRemove() {
+        GameSession session = manager.create("alice");
+        session.processInput("3+2+2=7");
+        ByteBuffer snapshot = ByteBuffer.allocate(GameSnapshot.MAX_BYTES);
+        session.writeSnapshot(snapshot);
+        snapshot.flip();
+        assertTrue(manager.remove("alice"));
+        assertFalse(manager.remove("alice"));
+        assertNull(manager.get("alice"));
+        assertTrue(session.isClosed());
+
+        GameSession restored = manager.restore("alice", snapshot.duplicate());
+        assertSame(restored, manager.get("alice"));
+        assertNotEquals(session.getNumber(), restored.getNumber());
+        assertEquals(NumberleModel.MAX_ATTEMPTS - 1, restored.getRemainingAttempts());
+        assertEquals(5, restored.processInput(restored.getTargetNumber()));
+        assertTrue(restored.isGameWon());
+        assertThrows(IllegalStateException.class, () -> manager.restore("alice", snapshot.duplicate()));
+        assertSame(restored, manager.get("alice"));
+    }
+}
@@ -0,0 +1,257 @@
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * The GameSimulator class plays Numberle games without any user interface, to measure throughput and to check
+ * the behaviour of the model and of guessing strategies at scale.
+ * Each worker thread owns its own NumberleModel and GuessStrategy, untraced,
+ * so games on different threads share nothing but the immutable dictionary.
+ * At the end it reports the number of games per second, the win rate and the distribution of guesses per win.
+ * Usage: java GameSimulator [games] [threads] [random|candidate|solver] [equations file]
+ */
+public final class GameSimulator {
+    // Invalid guesses do not use up an attempt, so a strategy making only invalid guesses would never finish
+    private static final int MAX_INVALID_GUESSES_PER_GAME = 100;
+    // The guess of a strategy that has nothing better, for games of its length
+    private static final String DEFAULT_GUESS = "1+2+3=6";
+
+    private final EquationDictionary dictionary;
+    private final Supplier<GuessStrategy> strategies;
+    // results[i] for i >= 1: games won with i guesses, results[0]: games lost
+    private final AtomicLongArray results = new AtomicLongArray(INumberleModel.MAX_SUPPORTED_ATTEMPTS + 1);
+    private final AtomicLong invalidGuesses = new AtomicLong();
+
+    /**
+     * Creates a simulator.
+     *
+     * @param dictionary The dictionary targets are drawn from.
+     * @param strategies Creates the strategy of each worker thread.
+     */
+    public GameSimulator(EquationDictionary dictionary, Supplier<GuessStrategy> strategies) {
+        this.dictionary = dictionary;
+        this.strategies = strategies;
+    }
+
+    public static void main(String[] args) throws Exception {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 100_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        String strategy = args.length > 2 ? args[2] : "candidate";
+        EquationDictionary dictionary = args.length > 3
+                ? EquationDictionary.load(Paths.get(args[3])) : EquationDictionary.getDefault();
+        GameSimulator simulator = new GameSimulator(dictionary, strategy(strategy, dictionary));
+        long start = System.nanoTime();
+        simulator.run(games, threads);
+        simulator.printReport(System.nanoTime() - start, threads, strategy);
+    }
+
+    /**
+     * Returns the factory of a named strategy.
+     *
+     * @param name       "random", "candidate" or "solver".
+     * @param dictionary The dictionary the strategies guess from.
+     * @return A factory creating one strategy per worker.
+     */
+    public static Supplier<GuessStrategy> strategy(String name, EquationDictionary dictionary) {
+        switch (name) {
+            case "random":
+                return () -> new RandomStrategy(dictionary);
+            case "candidate":
+                return () -> new CandidateStrategy();
+            case "solver":
+                return () -> new SolverStrategy(dictionary);
+            default:
+                throw new IllegalArgumentException("Unknown strategy: " + name);
+        }
+    }
+
+    /**
+     * Plays the given number of games, split evenly over a fixed pool of worker threads.
+     *
+     * @param games   The number of games to play.
+     * @param threads The number of worker threads.
+     */
+    public void run(long games, int threads) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            Future<?>[] workers = new Future<?>[threads];
+            for (int t = 0; t < threads; t++) {
+                long share = games / threads + (t < games % threads ? 1 : 0);
+                workers[t] = pool.submit(() -> play(share));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Plays games on the calling thread with its own model and strategy, and adds the results up at the end.
+     */
+    private void play(long games) {
+        NumberleModel model = new NumberleModel(dictionary);
+        GuessStrategy strategy = strategies.get();
+        long[] local = new long[results.length()];
+        long invalid = 0;
+        for (long g = 0; g < games; g++) {
+            model.startNewGame();
+            strategy.newGame();
+            int invalidInGame = 0;
+            while (!model.isGameOver()) {
+                String guess = strategy.nextGuess(model);
+                int result = model.processInput(guess);
+                if (result == 0 || result == 5) {
+                    strategy.observe(guess, model.getFeedback());
+                } else {
+                    invalid++;
+                    if (++invalidInGame > MAX_INVALID_GUESSES_PER_GAME) {
+                        throw new IllegalStateException("The strategy keeps making invalid guesses: " + guess);
+                    }
+                }
+            }
+            local[model.isGameWon() ? model.getMaxAttempts() - model.getRemainingAttempts() : 0]++;
+        }
+        for (int i = 0; i < local.length; i++) {
+            results.addAndGet(i, local[i]);
+        }
+        invalidGuesses.addAndGet(invalid);
+    }
+
+    /**
+     * Prints the throughput, the win rate and the guess distribution.
+     */
+    public void printReport(long elapsedNanos, int threads, String strategy) {
+        long won = 0;
+        long guesses = 0;
+        int rows = INumberleModel.MAX_ATTEMPTS; // And more if games with more attempts were won
+        for (int i = 1; i < results.length(); i++) {
+            won += results.get(i);
+            guesses += i * results.get(i);
+            if (results.get(i) > 0) {
+                rows = Math.max(rows, i);
+            }
+        }
+        long games = won + results.get(0);
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("Strategy %s, %d threads, %d equations%n", strategy, threads, dictionary.size());
+        System.out.printf("%d games in %.2f s: %.0f games/s%n", games, seconds, games / seconds);
+        System.out.printf("Win rate %.2f%%, %.3f guesses per win, %d invalid guesses%n",
+                games == 0 ? 0 : 100.0 * won / games, won == 0 ? 0 : (double) guesses / won, invalidGuesses.get());
+        for (int i = 1; i <= rows; i++) {
+            System.out.printf("  %d guesses: %d%n", i, results.get(i));
+        }
+        System.out.printf("  lost:      %d%n", results.get(0));
+    }
+
+    /**
+     * Returns a valid guess of the length of the current game, for strategies that have nothing better.
+     *
+     * @param model The model of the game.
+     * @return "1+2+3=6" for games of 7 characters, otherwise the first equation of the EquationSpace of the length.
+     */
+    static String defaultGuess(INumberleModel model) {
+        int length = model.getEquationLength();
+        return length == DEFAULT_GUESS.length() ? DEFAULT_GUESS : EquationSpace.of(length).first();
+    }
+
+    /**
+     * @return The length of the equations of a dictionary, EQUATION_LENGTH if it is empty, as in NumberleModel.
+     */
+    private static int lengthOf(EquationDictionary dictionary) {
+        return dictionary.isEmpty() ? INumberleModel.EQUATION_LENGTH : dictionary.get(0).length();
+    }
+
+    /**
+     * Guesses random dictionary equations, ignoring the feedback, or random equations of the EquationSpace
+     * in games of another length than the dictionary's.
+     */
+    static final class RandomStrategy implements GuessStrategy {
+        private final EquationDictionary dictionary;
+        private final Random random = ThreadLocalRandom.current();
+
+        RandomStrategy(EquationDictionary dictionary) {
+            this.dictionary = dictionary;
+        }
+
+        @Override
+        public void newGame() {
+        }
+
+        @Override
+        public String nextGuess(INumberleModel model) {
+            int length = model.getEquationLength();
+            if (length != lengthOf(dictionary)) {
+                return EquationSpace.of(length).sample(random);
+            }
+            return dictionary.get(random.nextInt(dictionary.size()));
+        }
+
+        @Override
+        public void observe(String guess, int feedback) {
+        }
+    }
+
+    /**
+     * Guesses the first equation still consistent with the feedback, as reported by the model.
+     */
+    static final class CandidateStrategy implements GuessStrategy {
+        @Override
+        public void newGame() {
+        }
+
+        @Override
+        public String nextGuess(INumberleModel model) {
+            Iterator<String> candidates = model.remainingCandidates();
+            // The target is always a candidate, unless it is outside the dictionary: the default equation,
+            // or any equation of a game of another length
+            return candidates.hasNext() ? candidates.next() : defaultGuess(model);
+        }
+
+        @Override
+        public void observe(String guess, int feedback) {
+        }
+    }
+
+    /**
+     * Guesses the equation suggested by a NumberleSolver, or the default guess in games of another length than
+     * the dictionary's, which the solver knows nothing of.
+     */
+    static final class SolverStrategy implements GuessStrategy {
+        private final NumberleSolver solver;
+        private final int length;
+        private boolean solving;
+
+        SolverStrategy(EquationDictionary dictionary) {
+            this.solver = new NumberleSolver(dictionary);
+            this.length = lengthOf(dictionary);
+        }
+
+        @Override
+        public void newGame() {
+            solver.reset();
+        }
+
+        @Override
+        public String nextGuess(INumberleModel model) {
+            solving = model.getEquationLength() == length;
+            String suggestion = solving ? solver.suggest() : null;
+            return suggestion != null ? suggestion : defaultGuess(model);
+        }
+
+        @Override
+        public void observe(String guess, int feedback) {
+            if (solving) {
+                solver.apply(guess, feedback);
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * The GameSnapshot class defines the binary snapshot format of a game, used to suspend and resume sessions.
+ * NumberleModel.writeSnapshot writes it and the NumberleModel(EquationDictionary, ByteBuffer) constructor
+ * reads it back, with relative gets and puts on the buffer, in the buffer's byte order, and no reflection.
+ * Equations are packed 4 bits per symbol (see Symbols.pack), and the keyboard state is the model's 15-bit masks,
+ * so a game takes 27 bytes plus 8 bytes per guess (and 4 for the feedback), and never more than MAX_BYTES.
+ * Layout:
+ *   byte   version
+ *   byte   flags: WON, RANDOM, HAS_FEEDBACK (the last guess was scored, so its feedback is shown)
+ *   byte   equation length
+ *   byte   remaining attempts
+ *   byte   attempts of the game
+ *   byte   number of scored guesses
+ *   long   target, packed
+ *   long   each scored guess, packed, oldest first
+ *   int    the packed feedback of the last guess, only if HAS_FEEDBACK is set
+ *   short  x 3  symbols marked green, orange and gray on the keyboard since the last game over (getMap)
+ *   short  x 3  symbols in the green, orange and gray hint sets (getColorCharacters)
+ *   byte   length of the current guess, followed by the packed guess if it is not empty
+ * The candidates are not stored; they follow from the target and the guesses.
+ */
+public final class GameSnapshot {
+    /** The version written and read by this code. 1 was the layout without the attempts of the game. */
+    public static final byte VERSION = 2;
+    /** The largest snapshot, which a buffer of this size always fits. */
+    public static final int MAX_BYTES = 6 + 8 + 8 * INumberleModel.MAX_SUPPORTED_ATTEMPTS + 4 + 12 + 1 + 8;
+
+    static final int WON = 1;
+    static final int RANDOM = 2;
+    static final int HAS_FEEDBACK = 4;
+
+    private GameSnapshot() {
+    }
+
+    /**
+     * Reads the version byte and checks that this code can read the rest.
+     *
+     * @throws IllegalArgumentException If the snapshot has another version than VERSION.
+     */
+    static void readVersion(ByteBuffer in) {
+        byte version = in.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported snapshot version " + version);
+        }
+    }
+
+    /**
+     * Reads a packed equation and checks every symbol.
+     *
+     * @throws IllegalArgumentException If a symbol is outside the alphabet.
+     * @throws BufferUnderflowException If the snapshot is truncated.
+     */
+    static String readEquation(ByteBuffer in, int length) {
+        return Symbols.unpack(readPacked(in, length), length);
+    }
+
+    /**
+     * Reads a packed equation, checks every symbol and returns it still packed.
+     *
+     * @throws IllegalArgumentException If a symbol is outside the alphabet.
+     * @throws BufferUnderflowException If the snapshot is truncated.
+     */
+    static long readPacked(ByteBuffer in, int length) {
+        long packed = in.getLong();
+        for (int i = 0; i < length; i++) {
+            if (((packed >>> (i << 2)) & 0xF) >= Symbols.COUNT) {
+                throw new IllegalArgumentException("Corrupt snapshot: invalid symbol");
+            }
+        }
+        return packed;
+    }
+
+    /**
+     * Reads a mask of symbols, bit i for the symbol of index i, dropping the bits outside the alphabet.
+     *
+     * @throws BufferUnderflowException If the snapshot is truncated.
+     */
+    static short readMask(ByteBuffer in) {
+        return (short) (in.getShort() & Symbols.ALL);
+    }
+}
@@ -0,0 +1,404 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * The GameStatistics class aggregates the results of finished games, per player and over all players:
+ * games played, wins, losses, how many guesses each win took and, per player only, the current and best winning
+ * streaks. A streak over the interleaved games of all players would mean nothing, and would make every session
+ * update the same counter.
+ * Results are recorded without locks: the counters shared by all players are LongAdders, which threads add to
+ * without contending, and a player's counters are found with one ConcurrentHashMap lookup, so thousands of
+ * sessions can record their results at once. Reads sum the counters, so a summary taken while games end is exact
+ * for each counter but not necessarily consistent across them.
+ * A model's results are recorded by subscribing a recorder to its GameEventBus. The statistics can be saved to
+ * and loaded from a tab separated file, and saved periodically by a background thread.
+ */
+public final class GameStatistics implements AutoCloseable {
+    /** The name under which the totals over all players are saved; it cannot be used as a player name. */
+    public static final String ALL_PLAYERS = "*";
+
+    private static final String HEADER = "player\tplayed\twon\tcurrentStreak\tmaxStreak\tguessesPerWin";
+
+    private final ConcurrentHashMap<String, PlayerCounters> players = new ConcurrentHashMap<>();
+    private final Counters total = new Counters();
+    private ScheduledExecutorService saver;
+    private Path saveFile;
+
+    /**
+     * The lock-free counters of all players, which have no streaks.
+     */
+    private static class Counters {
+        final LongAdder played = new LongAdder();
+        final LongAdder won = new LongAdder();
+        final LongAdder[] guessesPerWin = new LongAdder[INumberleModel.MAX_SUPPORTED_ATTEMPTS + 1]; // Index 0 is unused
+
+        Counters() {
+            for (int i = 0; i < guessesPerWin.length; i++) {
+                guessesPerWin[i] = new LongAdder();
+            }
+        }
+
+        void record(boolean won, int guesses) {
+            played.increment();
+            if (won) {
+                this.won.increment();
+                guessesPerWin[Math.max(1, Math.min(guesses, guessesPerWin.length - 1))].increment();
+            }
+        }
+
+        Summary summary(String player) {
+            return summary(player, 0, 0);
+        }
+
+        Summary summary(String player, long currentStreak, long maxStreak) {
+            long[] guesses = new long[guessesPerWin.length];
+            for (int i = 0; i < guesses.length; i++) {
+                guesses[i] = guessesPerWin[i].sum();
+            }
+            return new Summary(player, played.sum(), won.sum(), currentStreak, maxStreak, guesses);
+        }
+    }
+
+    /**
+     * The counters of one player, with their winning streaks. Only the sessions of that player update them.
+     */
+    private static final class PlayerCounters extends Counters {
+        final AtomicLong currentStreak = new AtomicLong();
+        final LongAccumulator maxStreak = new LongAccumulator(Math::max, 0);
+
+        @Override
+        void record(boolean won, int guesses) {
+            super.record(won, guesses);
+            if (won) {
+                maxStreak.accumulate(currentStreak.incrementAndGet());
+            } else {
+                currentStreak.set(0);
+            }
+        }
+
+        @Override
+        Summary summary(String player) {
+            return summary(player, currentStreak.get(), maxStreak.get());
+        }
+    }
+
+    /**
+     * An immutable summary of the statistics of one player, or of all players.
+     *
+     * @param player        The player, or ALL_PLAYERS.
+     * @param played        The number of games finished.
+     * @param won           The number of games won.
+     * @param currentStreak The number of games won since the last one lost, 0 for ALL_PLAYERS.
+     * @param maxStreak     The longest run of games won, 0 for ALL_PLAYERS.
+     * @param guessesPerWin Element i is the number of games won with i guesses; element 0 is unused.
+     */
+    public record Summary(String player, long played, long won, long currentStreak, long maxStreak,
+                          long[] guessesPerWin) {
+        /** Most games won first. */
+        public static final Comparator<Summary> BY_WINS = Comparator.comparingLong(Summary::won).reversed();
+        /** Highest share of games won first. */
+        public static final Comparator<Summary> BY_WIN_RATE =
+                Comparator.comparingDouble(Summary::winRate).reversed().thenComparing(BY_WINS);
+        /** Longest winning streak first. */
+        public static final Comparator<Summary> BY_MAX_STREAK =
+                Comparator.comparingLong(Summary::maxStreak).reversed().thenComparing(BY_WINS);
+        /** Fewest guesses per win first; players without a win last. */
+        public static final Comparator<Summary> BY_AVERAGE_GUESSES =
+                Comparator.comparingDouble(Summary::averageGuesses).thenComparing(BY_WINS);
+
+        /**
+         * @return The number of games lost.
+         */
+        public long lost() {
+            return played - won;
+        }
+
+        /**
+         * @return The share of games won, between 0 and 1, or 0 if no game was played.
+         */
+        public double winRate() {
+            return played == 0 ? 0 : (double) won / played;
+        }
+
+        /**
+         * @return The average number of guesses of the games won, or infinity if none was won.
+         */
+        public double averageGuesses() {
+            long guesses = 0;
+            long wins = 0;
+            for (int i = 1; i < guessesPerWin.length; i++) {
+                guesses += i * guessesPerWin[i];
+                wins += guessesPerWin[i];
+            }
+            return wins == 0 ? Double.POSITIVE_INFINITY : (double) guesses / wins;
+        }
+
+        /**
+         * @return A copy of the guesses-to-win histogram.
+         */
+        @Override
+        public long[] guessesPerWin() {
+            return guessesPerWin.clone();
+        }
+
+        @Override
+        public String toString() {
+            return player + ": " + played + " played, " + won + " won, streak " + currentStreak + " (best "
+                    + maxStreak + "), guesses per win " + Arrays.toString(Arrays.copyOfRange(guessesPerWin, 1,
+                    guessesPerWin.length));
+        }
+    }
+
+    /**
+     * Records the result of a game.
+     *
+     * @param player  The player.
+     * @param won     Whether the game was won.
+     * @param guesses The number of guesses scored in the game, including the last one.
+     * @throws IllegalArgumentException If the player is ALL_PLAYERS.
+     */
+    public void record(String player, boolean won, int guesses) {
+        counters(player).record(won, guesses);
+        total.record(won, guesses);
+    }
+
+    private Counters counters(String player) {
+        PlayerCounters counters = players.get(player); // Only the first game of a player takes the slower path
+        if (counters == null) {
+            if (ALL_PLAYERS.equals(player)) {
+                throw new IllegalArgumentException("Reserved player name " + player);
+            }
+            counters = players.computeIfAbsent(player, p -> new PlayerCounters());
+        }
+        return counters;
+    }
+
+    /**
+     * Returns a listener that records the games of one model as games of the given player.
+     * Each listener remembers the attempts of the game in progress, so subscribe one per model.
+     *
+     * @param player The player the games are recorded for.
+     * @return The listener.
+     * @throws IllegalArgumentException If the player is ALL_PLAYERS.
+     */
+    public Consumer<GameEvent> recorder(String player) {
+        if (ALL_PLAYERS.equals(player)) {
+            throw new IllegalArgumentException("Reserved player name " + player);
+        }
+        return new Consumer<>() {
+            // Of the game in progress, taken from its GameStarted or, for a restored game, its GameResumed
+            private int attempts = INumberleModel.MAX_ATTEMPTS;
+
+            @Override
+            public void accept(GameEvent event) {
+                if (event instanceof GameEvent.GameEnded ended) {
+                    record(player, ended.won(), attempts - ended.remainingAttempts());
+                } else if (event instanceof GameEvent.GameStarted started) {
+                    attempts = started.attempts();
+                } else if (event instanceof GameEvent.GameResumed resumed) {
+                    attempts = resumed.attempts();
+                }
+            }
+        };
+    }
+
+    /**
+     * @param player The player.
+     * @return The statistics of the player, all zero if they have not finished a game.
+     */
+    public Summary getPlayer(String player) {
+        PlayerCounters counters = players.get(player);
+        return counters == null ? new PlayerCounters().summary(player) : counters.summary(player);
+    }
+
+    /**
+     * @return The statistics over all players, without streaks.
+     */
+    public Summary getTotal() {
+        return total.summary(ALL_PLAYERS);
+    }
+
+    /**
+     * @return The number of players who have finished a game.
+     */
+    public int getPlayerCount() {
+        return players.size();
+    }
+
+    /**
+     * Returns the best players in the given order. Only the top entries are kept while scanning the players,
+     * so this takes time linear in the number of players and memory linear in the limit.
+     *
+     * @param order The order, such as Summary.BY_WIN_RATE; the best player comes first.
+     * @param limit The largest number of players to return.
+     * @return The best players, best first.
+     */
+    public List<Summary> leaderboard(Comparator<Summary> order, int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        // A heap of the best players so far, with the worst of them on top to be replaced
+        PriorityQueue<Summary> best = new PriorityQueue<>(limit + 1, order.reversed());
+        players.forEach((player, counters) -> {
+            best.add(counters.summary(player));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        });
+        List<Summary> board = new ArrayList<>(best);
+        board.sort(order);
+        return board;
+    }
+
+    /**
+     * Writes the statistics of every player and the totals to a file, as one tab separated line each.
+     * The file is written beside the target and then moved over it, so a reader never sees it half written.
+     *
+     * @param file The file.
+     * @throws IOException If the file cannot be written.
+     */
+    public void save(Path file) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            writeLine(writer, getTotal());
+            for (Map.Entry<String, PlayerCounters> entry : players.entrySet()) {
+                writeLine(writer, entry.getValue().summary(entry.getKey()));
+            }
+        }
+        try {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void writeLine(BufferedWriter writer, Summary summary) throws IOException {
+        // Tabs and line breaks in a name would break the line, so they are saved as spaces
+        writer.write(summary.player().replace('\t', ' ').replace('\n', ' ').replace('\r', ' '));
+        writer.write('\t' + Long.toString(summary.played()) + '\t' + summary.won() + '\t' + summary.currentStreak()
+                + '\t' + summary.maxStreak());
+        for (int i = 1; i < summary.guessesPerWin.length; i++) {
+            writer.write('\t' + Long.toString(summary.guessesPerWin[i]));
+        }
+        writer.newLine();
+    }
+
+    /**
+     * Loads statistics saved by save.
+     *
+     * @param file The file.
+     * @return The statistics, empty if the file does not exist.
+     * @throws IOException              If the file cannot be read.
+     * @throws IllegalArgumentException If a line is not in the format of save.
+     */
+    public static GameStatistics load(Path file) throws IOException {
+        GameStatistics statistics = new GameStatistics();
+        if (!Files.exists(file)) {
+            return statistics;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line = reader.readLine(); // Header
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                String[] fields = line.split("\t");
+                if (fields.length < 5) {
+                    throw new IllegalArgumentException("Malformed statistics line: " + line);
+                }
+                Counters counters = fields[0].equals(ALL_PLAYERS) ? statistics.total
+                        : statistics.players.computeIfAbsent(fields[0], p -> new PlayerCounters());
+                try {
+                    counters.played.add(Long.parseLong(fields[1]));
+                    counters.won.add(Long.parseLong(fields[2]));
+                    long currentStreak = Long.parseLong(fields[3]);
+                    long maxStreak = Long.parseLong(fields[4]);
+                    // The totals have no streaks, their streak columns are saved as 0
+                    if (counters instanceof PlayerCounters player) {
+                        player.currentStreak.set(currentStreak);
+                        player.maxStreak.accumulate(maxStreak);
+                    }
+                    // A file saved with more attempts puts its longer wins in the last bucket
+                    for (int i = 5; i < fields.length; i++) {
+                        counters.guessesPerWin[Math.min(i - 4, counters.guessesPerWin.length - 1)]
+                                .add(Long.parseLong(fields[i]));
+                    }
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Malformed statistics line: " + line, e);
+                }
+            }
+        }
+        return statistics;
+    }
+
+    /**
+     * Saves the statistics to a file periodically from a background thread, and once more when closed.
+     * Errors are printed and the next save is tried as usual.
+     *
+     * @param file   The file, see save.
+     * @param period The time between saves.
+     * @param unit   The unit of period.
+     * @throws IllegalStateException If periodic saving was already started.
+     */
+    public synchronized void saveEvery(Path file, long period, TimeUnit unit) {
+        if (saver != null) {
+            throw new IllegalStateException("Already saving to " + saveFile);
+        }
+        saveFile = file;
+        saver = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "numberle-statistics-saver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        saver.scheduleWithFixedDelay(this::saveQuietly, period, period, unit);
+    }
+
+    private void saveQuietly() {
+        try {
+            save(saveFile);
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Stops periodic saving, if it was started, and saves one last time.
+     */
+    @Override
+    public synchronized void close() {
+        if (saver == null) {
+            return;
+        }
+        saver.shutdown();
+        try {
+            saver.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        saver = null;
+        saveQuietly();
+    }
+}
@@ -0,0 +1,28 @@
+/**
+ * The GuessStrategy interface is implemented by the automatic players driven by GameSimulator.
+ * A strategy plays one game at a time: it is told when a game starts, asked for each guess,
+ * and given the packed feedback of every valid guess.
+ * Strategies are not shared between threads, the simulator creates one per worker.
+ */
+public interface GuessStrategy {
+    /**
+     * Called before the first guess of each game.
+     */
+    void newGame();
+
+    /**
+     * Chooses the next guess.
+     *
+     * @param model The model of the game being played.
+     * @return The next guess, which should be a valid equation.
+     */
+    String nextGuess(INumberleModel model);
+
+    /**
+     * Called after each valid guess with the feedback the model gave.
+     *
+     * @param guess    The guessed equation.
+     * @param feedback The packed feedback, see Feedback.
+     */
+    void observe(String guess, int feedback);
+}
@@ -1,4 +1,5 @@
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -9,7 +10,11 @@ import java.util.Set;
  * Implementations of this interface handle the game logic and state management for playing Numberle.
  */
 public interface INumberleModel {
-    int MAX_ATTEMPTS = 6;
+    int MAX_ATTEMPTS = 6; // Attempts of a game unless set otherwise
+    int EQUATION_LENGTH = 7; // Length of the equations of a game unless set otherwise
+    int MIN_EQUATION_LENGTH = 5;
+    int MAX_EQUATION_LENGTH = 12;
+    int MAX_SUPPORTED_ATTEMPTS = 10;
     void initialize();
     int processInput(String input);
     boolean isGameOver();
@@ -20,8 +25,17 @@ public interface INumberleModel {
     void startNewGame();
     int evaluateExpression(String expression);
     void setRandom(boolean random);
+    void setEquationLength(int length); // From the next game on
+    void setMaxAttempts(int attempts); // From the next game on
+    int getEquationLength();
+    int getMaxAttempts();
     List<Character> getUnusedCharacters();
     ArrayList<String> getColors();
+    int getFeedback();
     Map<String, Set<Character>> getMap();
+    short getKeyboardMask(int color);
     String getColorCharacters();
+    int remainingCandidateCount();
+    Iterator<String> remainingCandidates();
+    GameEventBus getEventBus();
 }
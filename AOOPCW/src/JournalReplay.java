@@ -0,0 +1,207 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The JournalReplay class reads a GameJournal back, streaming aggregate statistics as it goes.
+ * Segments are memory-mapped and scanned record by record with absolute reads and no allocation,
+ * so the statistics are computed at the speed the disk delivers the segments.
+ * With --rebuild, it also rebuilds a NumberleModel per session from its START or RESUME record and replays every
+ * guess, checking that each gives the recorded result code and feedback, which audits the journal against the model.
+ * Usage: java JournalReplay [journal directory] [--rebuild] [equations file]
+ */
+public final class JournalReplay {
+
+    /**
+     * Receives the records of a journal, as their fields, see GameJournal for their meaning.
+     */
+    public interface RecordVisitor {
+        void visit(long session, long time, byte type, long equation, int length, int code, int feedback,
+                   int attempts);
+    }
+
+    private JournalReplay() {
+    }
+
+    /**
+     * Reads every record of a journal in order, skipping the empty records left by interrupted appends.
+     *
+     * @param directory The directory of the journal.
+     * @param visitor   Receives each record.
+     * @return The number of records read.
+     * @throws IOException If a segment cannot be read.
+     */
+    public static long forEach(Path directory, RecordVisitor visitor) throws IOException {
+        long records = 0;
+        for (Path file : GameJournal.segmentFiles(directory)) {
+            records += forEachInSegment(file, visitor);
+        }
+        return records;
+    }
+
+    private static long forEachInSegment(Path file, RecordVisitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            segment.order(ByteOrder.LITTLE_ENDIAN);
+            long records = 0;
+            int end = GameJournal.usedRecords(segment) * GameJournal.RECORD_BYTES;
+            for (int offset = 0; offset < end; offset += GameJournal.RECORD_BYTES) {
+                byte type = segment.get(offset + GameJournal.TYPE);
+                if (type == 0) {
+                    continue; // A hole, see GameJournal
+                }
+                visitor.visit(segment.getLong(offset + GameJournal.SESSION),
+                        segment.getLong(offset + GameJournal.TIME),
+                        type,
+                        segment.getLong(offset + GameJournal.EQUATION),
+                        segment.get(offset + GameJournal.LENGTH),
+                        segment.get(offset + GameJournal.CODE),
+                        segment.getInt(offset + GameJournal.FEEDBACK),
+                        segment.get(offset + GameJournal.ATTEMPTS));
+                records++;
+            }
+            return records;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(args.length > 0 ? args[0] : "journal");
+        boolean rebuild = args.length > 1 && args[1].equals("--rebuild");
+        EquationDictionary dictionary = args.length > 2
+                ? EquationDictionary.load(Paths.get(args[2])) : EquationDictionary.getDefault();
+        Statistics statistics = new Statistics(rebuild ? dictionary : null);
+        long start = System.nanoTime();
+        long bytes = 0;
+        for (Path file : GameJournal.segmentFiles(directory)) {
+            long records = forEachInSegment(file, statistics);
+            bytes += records * GameJournal.RECORD_BYTES;
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%s: %d records, %.0f MB/s; %s%n", file.getFileName(), records,
+                    bytes / 1e6 / seconds, statistics);
+        }
+        System.out.println(statistics);
+        if (rebuild) {
+            System.out.println("Replayed " + statistics.replayed + " guesses, " + statistics.mismatches
+                    + " did not give the recorded result; " + statistics.models.size() + " games still in progress");
+        }
+    }
+
+    /**
+     * The aggregate statistics of the records seen so far, and the rebuilt models if asked for.
+     */
+    static final class Statistics implements RecordVisitor {
+        private final EquationDictionary dictionary; // null unless the models are rebuilt
+        private final Map<Long, NumberleModel> models = new HashMap<>();
+        private final Map<Long, Integer> startAttempts = new HashMap<>(); // Of the games in progress
+        private long games;
+        private long resumed;
+        private long scored;
+        private final long[] rejected = new long[GameEvent.GuessRejected.NOT_EQUAL + 1];
+        private long won;
+        private long lost;
+        private final long[] guessesPerWin = new long[INumberleModel.MAX_SUPPORTED_ATTEMPTS + 1];
+        private long replayed;
+        private long mismatches;
+
+        Statistics(EquationDictionary dictionary) {
+            this.dictionary = dictionary;
+        }
+
+        long getReplayed() {
+            return replayed;
+        }
+
+        long getMismatches() {
+            return mismatches;
+        }
+
+        long getWins(int guesses) {
+            return guessesPerWin[guesses];
+        }
+
+        @Override
+        public void visit(long session, long time, byte type, long equation, int length, int code, int feedback,
+                          int attempts) {
+            if (type == GameJournal.START) {
+                games++;
+                startAttempts.put(session, attempts);
+            } else if (type == GameJournal.RESUME) {
+                resumed++;
+                startAttempts.put(session, code);
+            } else if (code == 0 || code == 5) {
+                scored++;
+                if (code == 5) {
+                    // Games started before the journal are taken to have the default number of attempts
+                    int started = startAttempts.getOrDefault(session, INumberleModel.MAX_ATTEMPTS);
+                    startAttempts.remove(session);
+                    if (Feedback.isWin(feedback)) {
+                        won++;
+                        guessesPerWin[Math.max(0, Math.min(started - attempts,
+                                INumberleModel.MAX_SUPPORTED_ATTEMPTS))]++;
+                    } else {
+                        lost++;
+                    }
+                }
+            } else if (code > 0 && code < rejected.length) {
+                rejected[code]++;
+            }
+            if (dictionary != null) {
+                replay(session, type, equation, length, code, feedback, attempts);
+            }
+        }
+
+        private void replay(long session, byte type, long equation, int length, int code, int feedback,
+                            int attempts) {
+            if (equation == -1 || length < 0) {
+                return; // A rejected guess that could not be recorded; it changed nothing but the feedback
+            }
+            String text = Symbols.unpack(equation, length);
+            if (type == GameJournal.START) {
+                NumberleModel model = new NumberleModel(dictionary);
+                model.setMaxAttempts(attempts);
+                model.startNewGame(text);
+                models.put(session, model);
+                return;
+            }
+            if (type == GameJournal.RESUME) {
+                NumberleModel model = new NumberleModel(dictionary);
+                model.setMaxAttempts(code);
+                model.resumeGame(text, attempts);
+                models.put(session, model);
+                return;
+            }
+            NumberleModel model = models.get(session);
+            if (model == null) {
+                return; // Started before the journal
+            }
+            int result = model.processInput(text);
+            replayed++;
+            if (result != code || ((code == 0 || code == 5) && model.getFeedback() != feedback)) {
+                mismatches++;
+            }
+            if (result == 5) {
+                models.remove(session);
+            }
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            text.append(games).append(" games, ").append(resumed).append(" resumed, ").append(scored)
+                    .append(" scored guesses, rejected:");
+            for (int code = 1; code < rejected.length; code++) {
+                text.append(' ').append(rejected[code]);
+            }
+            text.append(", ").append(won).append(" won, ").append(lost).append(" lost, guesses per win:");
+            for (int guesses = 1; guesses < guessesPerWin.length; guesses++) {
+                text.append(' ').append(guesses).append('=').append(guessesPerWin[guesses]);
+            }
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The LatencyHistogram class counts durations in nanoseconds in log-linear buckets, like an HdrHistogram:
+ * each power of two is split into SUB_BUCKETS equal buckets, so any recorded value is known to within 1/16
+ * (about 6%) across the whole range, with a fixed number of buckets.
+ * Recording is a few shifts and atomic adds, with no allocation and no lock. To keep threads from
+ * contending on the same counters, the counters are striped: each thread adds to one of several rows, chosen
+ * from its thread id, and reads sum the rows. Reads taken while values are recorded are not atomic snapshots.
+ */
+public final class LatencyHistogram {
+    /** Values above this, about 9.8 hours, are counted as this. */
+    public static final long MAX_VALUE = (1L << 45) - 1;
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (63 - Long.numberOfLeadingZeros(MAX_VALUE) - SUB_BITS + 2) * SUB_BUCKETS;
+    // Each row holds the buckets, then the sum and the maximum of its values
+    private static final int SUM = BUCKETS;
+    private static final int MAX = BUCKETS + 1;
+    private static final int ROW = BUCKETS + 2;
+
+    private final int stripeMask;
+    private final AtomicLongArray counts;
+
+    /**
+     * Creates a histogram striped for the number of processors.
+     */
+    public LatencyHistogram() {
+        int stripes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1)) << 1;
+        this.stripeMask = Math.min(stripes, 64) - 1;
+        this.counts = new AtomicLongArray((stripeMask + 1) * ROW);
+    }
+
+    /**
+     * Returns the bucket of a value: values below SUB_BUCKETS have a bucket each, larger ones share a bucket
+     * with the values that have the same highest SUB_BITS + 1 bits.
+     */
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) Math.max(0, value);
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (magnitude - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (magnitude - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Returns the largest value counted in a bucket.
+     */
+    static long highestValueOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos The duration in nanoseconds; negative values count as 0 and huge ones as MAX_VALUE.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, Math.min(nanos, MAX_VALUE));
+        int row = (int) (Thread.currentThread().getId() & stripeMask) * ROW;
+        counts.incrementAndGet(row + bucketOf(value));
+        counts.addAndGet(row + SUM, value);
+        long max;
+        while (value > (max = counts.get(row + MAX)) && !counts.compareAndSet(row + MAX, max, value)) {
+            // Retry until this value is stored or a larger one is
+        }
+    }
+
+    /**
+     * @return The number of values in each bucket, summed over the stripes.
+     */
+    private long[] buckets() {
+        long[] buckets = new long[BUCKETS];
+        for (int row = 0; row < counts.length(); row += ROW) {
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                buckets[bucket] += counts.get(row + bucket);
+            }
+        }
+        return buckets;
+    }
+
+    /**
+     * @return The number of values recorded.
+     */
+    public long getCount() {
+        long count = 0;
+        for (long bucket : buckets()) {
+            count += bucket;
+        }
+        return count;
+    }
+
+    /**
+     * @return The largest value recorded, or 0 if none was.
+     */
+    public long getMax() {
+        long max = 0;
+        for (int row = 0; row < counts.length(); row += ROW) {
+            max = Math.max(max, counts.get(row + MAX));
+        }
+        return max;
+    }
+
+    /**
+     * @return The mean of the values recorded, or 0 if none was.
+     */
+    public double getMean() {
+        long sum = 0;
+        for (int row = 0; row < counts.length(); row += ROW) {
+            sum += counts.get(row + SUM);
+        }
+        long count = getCount();
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Returns the value below which the given share of the recorded values fall, to within the bucket precision.
+     *
+     * @param percentile The share, between 0 and 100.
+     * @return The highest value of the bucket holding that percentile, at most the largest value recorded,
+     *         or 0 if no value was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        return valueAtPercentile(buckets(), percentile);
+    }
+
+    private long valueAtPercentile(long[] buckets, double percentile) {
+        long count = 0;
+        for (long bucket : buckets) {
+            count += bucket;
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < buckets.length; bucket++) {
+            seen += buckets[bucket];
+            if (seen >= rank) {
+                return Math.min(highestValueOf(bucket), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Returns the count, mean, usual percentiles and maximum, in nanoseconds, in that order.
+     * The map is a plain copy, which JMX shows as a table.
+     *
+     * @return The summary of the histogram.
+     */
+    public Map<String, Long> summary() {
+        long[] buckets = buckets();
+        Map<String, Long> summary = new LinkedHashMap<>();
+        summary.put("count", getCount());
+        summary.put("meanNanos", Math.round(getMean()));
+        summary.put("p50Nanos", valueAtPercentile(buckets, 50));
+        summary.put("p90Nanos", valueAtPercentile(buckets, 90));
+        summary.put("p99Nanos", valueAtPercentile(buckets, 99));
+        summary.put("p999Nanos", valueAtPercentile(buckets, 99.9));
+        summary.put("maxNanos", getMax());
+        return summary;
+    }
+
+    /**
+     * Clears the histogram. Values recorded during the reset may be partly kept.
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    /**
+     * @return The summary on one line, with the durations in microseconds.
+     */
+    @Override
+    public String toString() {
+        Map<String, Long> summary = summary();
+        StringBuilder text = new StringBuilder("count=").append(summary.get("count"));
+        for (Map.Entry<String, Long> entry : summary.entrySet()) {
+            if (entry.getKey().endsWith("Nanos")) {
+                String name = entry.getKey().substring(0, entry.getKey().length() - "Nanos".length());
+                text.append(' ').append(name).append('=')
+                        .append(String.format("%.1fus", entry.getValue() / 1000.0));
+            }
+        }
+        return text.toString();
+    }
+}
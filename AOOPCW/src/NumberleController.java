@@ -1,12 +1,27 @@
+import javax.swing.SwingUtilities;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
 /**
  * The NumberleController class serves as the controller component in the MVC (Model-View-Controller) design pattern
  * for the Numberle game. It handles user input, interacts with the model, and updates the view accordingly.
  * This class facilitates communication between the model (INumberleModel) and the view (NumberleView).
  * 'view.setRestartEnable' is mainly use for check whether player type one valid equation. So that player can restart game.
+ * The model runs on a single engine thread, so a slow dictionary load or solver never blocks the Swing event
+ * dispatch thread: the Async methods return at once, with a future completed on the event dispatch thread once the
+ * view has been updated. The view only uses those. The other methods, getters included, run on the engine too and
+ * wait for it, so they see the writes of the engine but must not be called on the event dispatch thread.
  */
 public class NumberleController {
     private INumberleModel model;
     private NumberleView view;
+    private final ExecutorService engine = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "numberle-engine");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     public NumberleController(INumberleModel model) {
         this.model = model;
@@ -18,40 +33,88 @@ public class NumberleController {
     }
 
     public void processInput(String input) {
-        if(model.processInput(input)==0) {
+        afterInput(CompletableFuture.supplyAsync(() -> model.processInput(input), engine).join());
+    }
+
+    /**
+     * Processes a guess on the engine thread.
+     *
+     * @param input The guess.
+     * @return A future of the result code of the model, completed on the event dispatch thread.
+     */
+    public CompletableFuture<Integer> processInputAsync(String input) {
+        return CompletableFuture.supplyAsync(() -> model.processInput(input), engine)
+                .thenApplyAsync(this::afterInput, SwingUtilities::invokeLater);
+    }
+
+    private int afterInput(int result) {
+        if(result==0) {
         	view.setRestartEnable(true);
         }
+        return result;
     }
 
     public void startNewGame() {
-        model.startNewGame();
+        CompletableFuture.runAsync(model::startNewGame, engine).join();
+        afterNewGame(null);
+    }
+
+    /**
+     * Starts a new game on the engine thread.
+     *
+     * @return A future completed on the event dispatch thread once the game has started.
+     */
+    public CompletableFuture<Void> startNewGameAsync() {
+        return CompletableFuture.runAsync(model::startNewGame, engine)
+                .thenAcceptAsync(this::afterNewGame, SwingUtilities::invokeLater);
+    }
+
+    private void afterNewGame(Void started) {
         if(view!=null) {
             view.setRestartEnable(false);
         }
     }
 
+    /**
+     * Sets whether the targets are random, from the next game on. The change is queued on the engine thread,
+     * so it applies to the games started after this call.
+     */
     public void setRandom(boolean random) {
-        model.setRandom(random);
+        engine.execute(() -> model.setRandom(random));
+    }
+
+    /**
+     * Reads the target of the current game on the engine thread, after the calls queued before.
+     *
+     * @return A future of the target, completed on the event dispatch thread.
+     */
+    public CompletableFuture<String> getTargetWordAsync() {
+        return CompletableFuture.supplyAsync(model::getTargetNumber, engine)
+                .thenApplyAsync(target -> target, SwingUtilities::invokeLater);
     }
 
     public String getTargetWord() {
-        return model.getTargetNumber();
+        return onEngine(model::getTargetNumber);
     }
 
     public StringBuilder getCurrentGuess() {
-        return model.getCurrentGuess();
+        return onEngine(model::getCurrentGuess);
     }
 
     public int getRemainingAttempts() {
-        return model.getRemainingAttempts();
+        return onEngine(model::getRemainingAttempts);
     }
 
     public boolean isGameOver() {
-        return model.isGameOver();
+        return onEngine(model::isGameOver);
     }
 
     public boolean isGameWon() {
-        return model.isGameWon();
+        return onEngine(model::isGameWon);
+    }
+
+    private <T> T onEngine(Supplier<T> read) {
+        return CompletableFuture.supplyAsync(read, engine).join();
     }
 
 }
\ No newline at end of file
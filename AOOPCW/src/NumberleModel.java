@@ -1,55 +1,161 @@
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.*;
-import java.util.regex.Pattern;
 
 /**
  * The NumberleModel class implements the INumberleModel interface to provide the logic and state management for playing the Numberle game.
  * It generates target equations, processes user input, evaluates expressions, and determines game status.
  * This class maintains the target equation, current guess, remaining attempts, and game outcome.
  * It also handles the colors associated with the current guess and character mapping for feedback.
+ * Changes of the game state are published as GameEvents on the model's GameEventBus.
  */
-public class NumberleModel extends Observable implements INumberleModel {
+public class NumberleModel implements INumberleModel {
     private String targetNumber;
     private StringBuilder currentGuess;
     private int remainingAttempts;
     private boolean gameWon;
     private boolean isRandom=true; // Flag3
-    private final ArrayList<String> colors = new ArrayList<>();
-    private final Map<String, Set<Character>> map = new HashMap<>();
-    private final HashMap<String, HashSet<Character>> colorCharacters = new HashMap<>();
+    private TraceSink trace = TraceSink.NOOP; // Where the target and the feedback are traced (flag2)
+    private ValidationCache validationCache; // Shared with other models, null to evaluate every guess
+    private final EquationDictionary dictionary;
+    private final FeedbackMatrix feedbackMatrix; // Precomputed feedback of the dictionary, null if not available
+    private int targetIndex = -1; // Index of the target in the dictionary, -1 for the default equation
+    private long[] candidates = new long[0]; // Dictionary equations consistent with the feedback so far, see ConstraintIndex; null until rebuilt after a restore
+    private int equationLength = EQUATION_LENGTH; // Of the current game
+    private int maxAttempts = MAX_ATTEMPTS;
+    private int nextEquationLength = EQUATION_LENGTH; // Of the games started from now on
+    private int nextMaxAttempts = MAX_ATTEMPTS;
+    private final long[] guesses = new long[MAX_SUPPORTED_ATTEMPTS]; // Scored guesses of this game, packed, see Symbols.pack
+    private int guessCount;
+    private String replayTarget; // Target of the game being started by startNewGame(String), null otherwise
+    private final Random rand = new Random();
+    private int feedback; // Packed feedback of the last valid guess, see Feedback
+    private int feedbackLength; // Number of positions in feedback, 0 if there is none
+    private final ArrayList<String> colors = new ArrayList<>(); // String view of feedback, built on demand
+    private boolean colorsStale;
+    // Keyboard state as masks of symbols, bit i for the symbol of index i (see Symbols), one per Feedback colour
+    private final short[] marked = new short[3]; // Symbols shown in each colour since the last game over (getMap)
+    private final short[] hints = new short[3]; // Hint sets of the current game (getColorCharacters)
+    // Views of the masks, rebuilt only when the masks they were built from change
+    private List<Character> unusedView;
+    private int unusedViewMask = -1;
+    private Map<String, Set<Character>> markedView;
+    private long markedViewKey = -1;
+    private String hintsView;
+    private long hintsViewKey = -1;
+    private final GameEventBus events = new GameEventBus();
+
+    /** The names of the Feedback colours, by colour. */
+    private static final String[] COLOR_NAMES = {"Green", "Orange", "Gray"};
+    /** The order the colours were listed in when the hints were HashMaps, kept for the CLI output and the view. */
+    private static final int[] DISPLAY_ORDER = {Feedback.GRAY, Feedback.ORANGE, Feedback.GREEN};
+    /** The symbols of the keyboard that can be unused: all but '='. */
+    private static final int KEYBOARD_SYMBOLS = Symbols.ALL & ~(1 << Symbols.indexOf('='));
+
+    /**
+     * Creates a model that draws its target equations from the shared default dictionary,
+     * and looks feedback up in the default feedback matrix if "feedback.bin" exists.
+     */
+    public NumberleModel() {
+        this(EquationDictionary.getDefault(), FeedbackMatrix.getDefault());
+    }
+
+    /**
+     * Creates a model that draws its target equations from the given dictionary.
+     *
+     * @param dictionary The dictionary of target equations, which may be shared with other models.
+     */
+    public NumberleModel(EquationDictionary dictionary) {
+        this(dictionary, (FeedbackMatrix) null);
+    }
+
+    /**
+     * Creates a model that draws its target equations from the given dictionary
+     * and looks up the feedback of dictionary guesses in a precomputed matrix.
+     *
+     * @param dictionary     The dictionary of target equations, which may be shared with other models.
+     * @param feedbackMatrix The feedback matrix of that dictionary, or null to always score guesses directly.
+     */
+    public NumberleModel(EquationDictionary dictionary, FeedbackMatrix feedbackMatrix) {
+        this.dictionary = dictionary;
+        this.feedbackMatrix = feedbackMatrix;
+    }
+
+    /**
+     * Restores a game from a snapshot written by writeSnapshot, see GameSnapshot for the format.
+     * The game goes on where it was suspended; the candidates are rebuilt from the guesses when first needed.
+     *
+     * @param dictionary The dictionary of target equations, which may be shared with other models.
+     * @param snapshot   The snapshot, read from its position, which is left after the snapshot.
+     * @throws IllegalArgumentException If the snapshot has an unsupported version or is corrupt.
+     * @throws java.nio.BufferUnderflowException If the snapshot is truncated.
+     */
+    public NumberleModel(EquationDictionary dictionary, ByteBuffer snapshot) {
+        this(dictionary, (FeedbackMatrix) null);
+        GameSnapshot.readVersion(snapshot);
+        int flags = snapshot.get();
+        int length = snapshot.get();
+        remainingAttempts = snapshot.get();
+        maxAttempts = snapshot.get();
+        guessCount = snapshot.get();
+        if (length < 0 || length > Symbols.MAX_PACKED_LENGTH || guessCount < 0 || guessCount > maxAttempts
+                || maxAttempts > guesses.length || remainingAttempts < 0 || remainingAttempts > maxAttempts) {
+            throw new IllegalArgumentException("Corrupt snapshot");
+        }
+        equationLength = nextEquationLength = length;
+        nextMaxAttempts = maxAttempts;
+        gameWon = (flags & GameSnapshot.WON) != 0;
+        isRandom = (flags & GameSnapshot.RANDOM) != 0;
+        targetNumber = GameSnapshot.readEquation(snapshot, length); // targetIndex is only needed with a feedback matrix
+        for (int i = 0; i < guessCount; i++) {
+            guesses[i] = GameSnapshot.readPacked(snapshot, length);
+        }
+        if ((flags & GameSnapshot.HAS_FEEDBACK) != 0) {
+            feedback = snapshot.getInt();
+            feedbackLength = length;
+        }
+        for (int color = 0; color < marked.length; color++) {
+            marked[color] = GameSnapshot.readMask(snapshot);
+        }
+        for (int color = 0; color < hints.length; color++) {
+            hints[color] = GameSnapshot.readMask(snapshot);
+        }
+        int currentLength = snapshot.get();
+        if (currentLength < 0 || currentLength > Symbols.MAX_PACKED_LENGTH) {
+            throw new IllegalArgumentException("Corrupt snapshot");
+        }
+        currentGuess = new StringBuilder(currentLength > 0 ? GameSnapshot.readEquation(snapshot, currentLength) : "");
+        colorsStale = true;
+        candidates = null;
+    }
 
     /**
-     * Generates a target equation by reading from a file containing equations.
-     * If the file is unavailable or empty, a default equation "1+2+3=6" is returned.
-     * If random selection is enabled and the list is not empty, a random equation from the list is returned.
+     * Generates a target equation by picking one from the equation dictionary, which is loaded only once.
+     * If the dictionary is empty, a default equation "1+2+3=6" is returned.
+     * If random selection is enabled and the dictionary is not empty, a random equation from it is returned.
+     * Games of another length than the dictionary's draw their target from the EquationSpace of that length,
+     * uniformly at random, or take its first equation if random selection is disabled.
      * Also follow the requirement of flag3
      * @return The generated target equation as a String.
      */
     private String generateTargetEquation() {
-        // Initialize a list to store equations
-        List<String> equations = new ArrayList<>();
-        // Specify the file name containing equations
-        String fileName = "equations.txt";
-        try (BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
-            String line;
-            // Read equations line by line from the file and add them to the list
-            while ((line = reader.readLine()) != null) {
-                equations.add(line);
-            }
-        } catch (IOException e) {
-            // Handle file reading exceptions
-            e.printStackTrace();
-        }
-        // Check if the list of equations is not empty and random selection is enabled. Flag3
-        if (!equations.isEmpty()&&isRandom) {
-            // Generate a random index within the range of the list
-            Random rand = new Random();
-            // Return the equation at the randomly selected index
-            return equations.get(rand.nextInt(equations.size()));
+        if (replayTarget != null) {
+            // Replaying a journal: the target is the one the game had
+            targetIndex = dictionary.indexOf(replayTarget);
+            return replayTarget;
+        }
+        if (!usesDictionary()) {
+            targetIndex = -1;
+            EquationSpace space = EquationSpace.of(equationLength);
+            return isRandom ? space.sample(rand) : space.first();
+        }
+        // Check if the dictionary is not empty and random selection is enabled. Flag3
+        if (!dictionary.isEmpty()&&isRandom) {
+            // Return the equation at a randomly selected index
+            targetIndex = rand.nextInt(dictionary.size());
+            return dictionary.get(targetIndex);
         } else {
-            // Return a default equation if either the list is empty or random selection is disabled
+            // Return a default equation if either the dictionary is empty or random selection is disabled
+            targetIndex = -1;
             return "1+2+3=6";
         }
     }
@@ -58,41 +164,45 @@ public class NumberleModel extends Observable implements INumberleModel {
      * Initializes the game by setting up necessary parameters and generating the target number.
      * This method ensures that the maximum number of attempts is greater than 0 before proceeding.
      * It generates a random target number, initializes the current guess, sets the remaining attempts,
-     * sets the game state to not won, notifies observers of the game state change, generates a target equation,
-     * and initializes color sets for characters.
+     * sets the game state to not won, generates a target equation, initializes color sets for characters
+     * and publishes GameStarted.
      *
      * @ Invariants MAX_ATTEMPTS;
-     * @ assignable targetNumber, currentGuess, remainingAttempts, gameWon;
-     * @ ensures targetNumber != null;
-     * @ ensures remainingAttempts = MAX_ATTEMPTS;
+     * @ assignable targetNumber, currentGuess, remainingAttempts, gameWon, equationLength, maxAttempts;
+     * @ ensures targetNumber != null && targetNumber.length() == equationLength;
+     * @ ensures remainingAttempts = maxAttempts;
      * @ ensures !gameWon;
      * @ ensures currentGuess.length() == 0
-     * @ ensures for all String color; color.equals ( " Green ") || color.equals("Orange") || color.equals("Gray");
-     * @ ensures  colorCharacters.get(color) != null && colorCharacters.get(color).isEmpty())
+     * @ ensures (\forall int color; 0 <= color && color < 3; hints[color] == 0);
      */
     @Override
     public void initialize() {
-        assert MAX_ATTEMPTS > 0; // Precondition: Ensure maximum attempts are valid
-        Random rand = new Random();
+        assert nextMaxAttempts > 0; // Precondition: Ensure maximum attempts are valid
+        // The length and attempts set for the next game apply now; a replayed target has its own length
+        equationLength = replayTarget != null ? replayTarget.length() : nextEquationLength;
+        maxAttempts = nextMaxAttempts;
         targetNumber = Integer.toString(rand.nextInt(10000000)); // Generate random target number
         currentGuess = new StringBuilder(""); // Initialize current guess
-        remainingAttempts = MAX_ATTEMPTS;  // Set remaining attempts
+        remainingAttempts = maxAttempts;  // Set remaining attempts
         gameWon = false; // Set game state to not won
-        setChanged(); // Notify observers of game state change
-        notifyObservers();
+        guessCount = 0; // Clear the guess history
         targetNumber = generateTargetEquation(); // Generate target equation
-        System.out.println(targetNumber); // Print target number (for debugging purposes(flag2))
+        candidates = usesDictionary() && !dictionary.isEmpty() ? dictionary.getConstraintIndex().allCandidates() : new long[0];
+        if (trace.isEnabled(TraceLevel.INFO)) {
+            trace.gameStarted(targetNumber); // Trace target number (for debugging purposes(flag2))
+        }
         assert targetNumber != null; // Postcondition: Ensure target number is generated
-        // Initialize color sets for characters
-        colorCharacters.put("Green",new HashSet<Character>());
-        colorCharacters.put("Orange",new HashSet<Character>());
-        colorCharacters.put("Gray",new HashSet<Character>());
+        // Clear the hint sets of the characters
+        Arrays.fill(hints, (short) 0);
+        if (events.hasSubscribers()) {
+            events.publish(new GameEvent.GameStarted(maxAttempts, targetNumber)); // Tell listeners about the new game
+        }
     }
 
 
     /**
      * This method processes the user input for a game. It evaluates the input against a target number,
-     * provides feedback on the correctness of the input, updates game state, and notifies observers.
+     * provides feedback on the correctness of the input, updates game state, and publishes the outcome.
      * @param input The user input to be processed.
      * @return An integer indicating the result of processing:
      *         - 0: Successful processing.
@@ -100,28 +210,48 @@ public class NumberleModel extends Observable implements INumberleModel {
      *         - 5: Game over.
      * ----------------------------------------------------------------------------------------------------------------
      * @ requires input != null && input.length() == 7;
-     * @ assignable colors, remainingAttempts, gameWon, map;
+     * @ assignable feedback, colors, remainingAttempts, gameWon, marked, hints;
      * @ ensures result == 0 || result == 1 || result == 5;
-     * @ ensures \result == 0 ==> \notifiedObservers("Try Again");
+     * @ ensures \result == 0 ==> \published(GuessScored);
+     * @ ensures \result == 1 ==> \published(GuessRejected);
      * @ ensures \result == 1 ==> (\old(input) == null || \old(input.length()) != 7)
      * @ ensures \result == 5 ==> \isGameOver()
      * @ ensures (input.equals(targetNumber)) ==> gameWon
-     * @ ensures gameWon ==> \notifiedObservers("Game Won");
-     * @ ensures isGameOver() ==> \notifiedObservers("Game Over");
+     * @ ensures \result == 5 ==> \published(GameEnded);
+     * @ ensures feedback == Feedback.score(input, targetNumber);
      * @ ensures !gameWon ==> (\forall int i; i >= 0 && i < input.length();
      *          (input.charAt(i) == targetNumber.charAt(i) ==> colors.get(i).equals("0")) &&
-     *          (targetNumber.contains(String.valueOf(input.charAt(i))) && input.charAt(i) != targetNumber.charAt(i) ==> colors.get(i).equals("1")) &&
-     *          (!targetNumber.contains(String.valueOf(input.charAt(i))) ==> colors.get(i).equals("2")))
+     *          (input.charAt(i) != targetNumber.charAt(i) && an unmatched occurrence of input.charAt(i) is left in targetNumber ==> colors.get(i).equals("1")) &&
+     *          (otherwise ==> colors.get(i).equals("2")))
     @*/
     @Override
     public int processInput(String input) {
+        if (!GameMetrics.on()) {
+            return processGuess(input);
+        }
+        long start = System.nanoTime();
+        int result = processGuess(input);
+        GameMetrics.get().processInput(result, System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * Processes a guess and updates the game state, see processInput, which measures it when metrics are on.
+     */
+    private int processGuess(String input) {
     	int result;// Variable to store the result of evaluating the input.
-        assert input != null && input.length() == 7 : "Invalid input length"; // Assert input validity.
-        colors.clear(); // Clear the list of colors.
-        // Check for invalid input length and notify observers if found.
-        if (input == null || input.length() != 7) {
-            setChanged();
-            notifyObservers("Invalid Input");
+        assert input != null && input.length() == equationLength : "Invalid input length"; // Assert input validity.
+        feedback = 0; // Clear the feedback of the previous guess.
+        feedbackLength = 0;
+        colorsStale = true;
+        // Check for invalid input length and tell listeners if found.
+        if (input == null || input.length() != equationLength) {
+            if (trace.isEnabled(TraceLevel.DEBUG)) {
+                trace.guessRejected(input, 1);
+            }
+            if (events.hasSubscribers()) {
+                events.publish(new GameEvent.GuessRejected(input, GameEvent.GuessRejected.INVALID_LENGTH));
+            }
             return 1;
         }
         // Evaluate the input expression and handle any errors.
@@ -129,62 +259,84 @@ public class NumberleModel extends Observable implements INumberleModel {
             return result;
         }
         remainingAttempts--; // Decrement the remaining attempts.
+        // Score the input against the target, 2 bits per position. Repeated symbols follow the Wordle rules.
+        feedback = scoreGuess(input);
+        feedbackLength = input.length();
+        if (guessCount < guesses.length) {
+            guesses[guessCount++] = Symbols.pack(input); // Keep the history for snapshots
+        }
+        if (candidates != null && candidates.length > 0) { // Only games of the dictionary's length have candidates
+            // Narrow the candidates down with a few bitset operations
+            dictionary.getConstraintIndex().filter(candidates, input, feedback);
+        }
         // Check if the input matches the target number.
         if (input.equals(targetNumber)) {
             gameWon = true; // Set gameWon flag to true.
-            // Populate colors list with "0" indicating correct positions.
-            for(int i = 0; i < input.length(); i++) {
-                colors.add("0");
-            }
-            System.out.println();
         } else {
-            // Process input characters and provide feedback based on correctness.
+            // Process input characters and provide feedback based on correctness, one bit operation each.
             for (int i = 0; i < input.length(); i++) {
-                char c = input.charAt(i);
-                if (i < targetNumber.length() && c == targetNumber.charAt(i)) {
-                    colors.add("0"); // Add "0" to colors list for correct position.
-                    map.computeIfAbsent("Green", k -> new HashSet<>()).add(c);  // Update map with correct position.
-                    colorCharacters.get("Green").add(c);// Add character to Green set.
-                    colorCharacters.get("Orange").remove(c);// Remove character from Orange set.
-                    colorCharacters.get("Gray").remove(c);// Remove character from Gray set.
-                    System.out.println("Green: "+ c + " is in right position, ");
-                } else if (targetNumber.contains(String.valueOf(c))) {
-                    colors.add("1");// Add "1" to colors list for wrong position.
-                    map.computeIfAbsent("Orange", k -> new HashSet<>()).add(c); // Update map with wrong position.
-                    if(!colorCharacters.get("Green").contains(c)) {
-	                    colorCharacters.get("Orange").add(c);
-	                    colorCharacters.get("Gray").remove(c);
-                    }
-                    System.out.println("Orange: " + c + " is in wrong position, ");
-
-                } else {
-                    colors.add("2");// Add "2" to colors list for not in the equation.
-                    map.computeIfAbsent("Gray", k -> new HashSet<>()).add(c); // Update map with not in equation.
-                    if(!colorCharacters.get("Green").contains(c)&&!colorCharacters.get("Orange").contains(c)) {
-                    	colorCharacters.get("Gray").add(c);
+                int bit = 1 << Symbols.indexOf(input.charAt(i)); // Valid, so every symbol is in the alphabet
+                int color = Feedback.colorAt(feedback, i);
+                marked[color] |= bit; // Show the character in this colour on the keyboard.
+                if (color == Feedback.GREEN) {
+                    hints[Feedback.GREEN] |= bit; // Add character to Green set,
+                    hints[Feedback.ORANGE] &= ~bit; // and remove it from the Orange
+                    hints[Feedback.GRAY] &= ~bit; // and Gray sets.
+                } else if (color == Feedback.ORANGE) {
+                    if ((hints[Feedback.GREEN] & bit) == 0) {
+                        hints[Feedback.ORANGE] |= bit;
+                        hints[Feedback.GRAY] &= ~bit;
                     }
-                    System.out.println("Gray: " + c + " is not in the equation, ");
+                } else if (((hints[Feedback.GREEN] | hints[Feedback.ORANGE]) & bit) == 0) {
+                    hints[Feedback.GRAY] |= bit;
                 }
             }
         }
-        System.out.println();
-        // Check if the game is over and notify observers accordingly.
+        if (trace.isEnabled(TraceLevel.DEBUG)) {
+            trace.guessScored(input, feedback, remainingAttempts); // The sink formats the feedback of each character
+        }
+        // Check if the game is over and tell listeners accordingly.
         if (isGameOver()) {
-            setChanged();
-            notifyObservers(gameWon ? "Game Won" : "Game Over");
-            map.clear();// Clear the map
+            if (trace.isEnabled(TraceLevel.INFO)) {
+                trace.gameEnded(gameWon, targetNumber, remainingAttempts);
+            }
+            if (events.hasSubscribers()) {
+                events.publish(new GameEvent.GameEnded(input, feedback, remainingAttempts, gameWon, targetNumber));
+            }
+            Arrays.fill(marked, (short) 0); // Clear the keyboard
             return 5;// Return 5 for game over.
-        } else {
-            setChanged();
-            notifyObservers("Try Again");
+        } else if (events.hasSubscribers()) {
+            long masks = 0;
+            for (int color = 0; color < marked.length; color++) {
+                masks |= (marked[color] & 0xFFFFL) << (color << 4);
+            }
+            events.publish(new GameEvent.GuessScored(input, feedback, remainingAttempts, masks));
         }
         return 0;// Return 0 for successful processing.
     }
 
 
+    /**
+     * Scores a guess against the target. If both are dictionary equations and a feedback matrix is available,
+     * the feedback is read from the memory-mapped matrix instead of being computed.
+     *
+     * @param input The valid guess to score.
+     * @return The packed feedback, see Feedback.
+     */
+    private int scoreGuess(String input) {
+        if (feedbackMatrix != null && targetIndex >= 0) {
+            int guessIndex = dictionary.indexOf(input);
+            if (guessIndex >= 0) {
+                return feedbackMatrix.get(guessIndex, targetIndex);
+            }
+        }
+        return Feedback.score(input, targetNumber);
+    }
+
     /**
      * This method evaluates an expression in the form of "leftSide = rightSide" and checks if the two sides are equal.
-     * If the expression is valid and the two sides are equal within a small tolerance, it returns 0.
+     * If the expression is valid and the two sides are exactly equal, it returns 0.
+     * A division by zero or an arithmetic overflow on either side counts as not equal.
      * If the expression is invalid (e.g., missing symbols), it returns 3.
      * If the two sides are not equal, it returns 4.
      * If the expression does not contain an equal sign, it returns 2.
@@ -197,178 +349,178 @@ public class NumberleModel extends Observable implements INumberleModel {
      *
      * -----------------------------------------------------------------------------------------------------------------
      * @ ensures \result == 0 || \result == 2 || \result == 3 || \result == 4;
-     * @ ensures \result == 2 ==> \notifiedObservers("No Equal");
-     * @ ensures \result == 3 ==> \notifiedObservers("Missing Symbols");
-     * @ ensures \result == 4 ==> \notifiedObservers("Not Equal");
+     * @ ensures \result != 0 ==> \published(new GuessRejected(expression, \result));
      *
      */
     @Override
     public int evaluateExpression(String expression) {
         assert expression != null : "Expression cannot be null";
-        // Split the expression into two parts based on the equal sign
-        String[] parts = expression.split("=");
-        // Check if the expression contains an equal sign
-        if (parts.length != 2) {
-            // Notify observers and return 2 if no equal sign is found
-            setChanged();
-            notifyObservers("No Equal");
-            return 2;
-        }
-        // Check if the expression is valid (e.g., contains required symbols)
-        if (!isExpressionValid(expression)) {
-            // Notify observers and return 3 if the expression is invalid
-            setChanged();
-            notifyObservers("Missing Symbols");
-            return 3;
-        }
-        // Evaluate the numerical value of each side of the expression
-        if (Math.abs( evaluateSide(parts[0]) - evaluateSide(parts[1]) ) < 0.0001) {
-            // Return 0 if the sides are equal within a tolerance
-            return 0;
-        } else {
-            // Notify observers and return 4 if the sides are not equal
-            setChanged();
-            notifyObservers("Not Equal");
-            return 4;
+        boolean measured = GameMetrics.on();
+        long start = measured ? System.nanoTime() : 0;
+        // Validate and evaluate both sides in a single pass with exact rational arithmetic
+        int result = validationCache != null
+                ? validationCache.evaluate(expression) : ExpressionEvaluator.evaluate(expression);
+        // Tell listeners why the expression was rejected: no '=' (2), invalid (3) or not equal (4)
+        if (result != ExpressionEvaluator.EQUAL && trace.isEnabled(TraceLevel.DEBUG)) {
+            trace.guessRejected(expression, result);
+        }
+        if (result != ExpressionEvaluator.EQUAL && events.hasSubscribers()) {
+            events.publish(new GameEvent.GuessRejected(expression, result));
         }
+        if (measured) {
+            GameMetrics.get().evaluateExpression(System.nanoTime() - start);
+        }
+        return result;
     }
 
-
     /**
-     * Checks if a mathematical expression is valid.
+     * Retrieves a list of the keyboard characters not shown in any colour since the last game over.
+     * The list is an immutable view of the keyboard masks, built again only when they change.
      *
-     * @param expression The mathematical expression to be checked.
-     * @return true if the expression is valid, false otherwise.
-     * @throws AssertionError If the expression is null.
+     * @return List of unused characters, in keyboard order (digits, then operators)
      */
-    private static boolean isExpressionValid(String expression) {
-        // Ensure the expression is not null
-        assert expression != null : "Expression cannot be null";
-        // Regular expression pattern to match a valid mathematical expression
-        String regex = "^[+-]?\\d+([+\\-*/]\\d+)*=[+-]?\\d+([+\\-*/]\\d+)*$";
-        // Check if the expression matches the regex pattern
-        return Pattern.matches(regex, expression);
+    @Override
+    public List<Character> getUnusedCharacters() {
+        int unused = KEYBOARD_SYMBOLS & ~(marked[Feedback.GREEN] | marked[Feedback.ORANGE] | marked[Feedback.GRAY]);
+        if (unused != unusedViewMask) {
+            unusedView = Symbols.listOf(unused);
+            unusedViewMask = unused;
+        }
+        return unusedView;
     }
 
     /**
-     * This method evaluates a mathematical expression represented as a string,
-     * containing numbers, addition (+), subtraction (-), multiplication (*),
-     * and division (/) operators. It parses the string, calculates the result,
-     * and returns the evaluated value.
+     * Retrieves a formatted string containing color names and associated characters.
+     * The string is built again only when the hint sets change.
      *
-     * @param side The mathematical expression to evaluate.
-     * @return The result of the evaluation as a double value.
-     * @throws IllegalArgumentException If the input expression contains unexpected operators.
+     * @return Formatted string with color names and characters, one line per colour
      */
-    private static double evaluateSide(String side) {
-        assert side != null : "Side cannot be null";
-        // Initialize lists to store numbers and operators
-        List<Double> numbers = new ArrayList<>();
-        List<Character> operators = new ArrayList<>();
-        // Temporary string to store a number during parsing
-        String tempNum = "";
-        // Flag to track if parsing starts with an operator
-        boolean isStart = true;
-        // Parse the input string
-        for (char ch : side.toCharArray()) {
-            if (ch == '+' || ch == '-' || ch == '*' || ch == '/') {
-                // Handle negative numbers at the beginning of the expression
-                if (isStart && (ch == '+' || ch == '-')) {
-                    tempNum += ch;
-                    isStart = false;
-                    continue;
-                }
-                // Add parsed number to the list and reset temporary number string
-                if (!tempNum.isEmpty()) {
-                    numbers.add(Double.parseDouble(tempNum));
-                    tempNum = "";
-                }
-                // Add operator to the list
-                operators.add(ch);
-            } else {
-                // Append digits to temporary number string
-                tempNum += ch;
-            }
-            isStart = false;
-        }
-        // Add the last parsed number to the list
-        if (!tempNum.isEmpty()) {
-            numbers.add(Double.parseDouble(tempNum));
-        }
-        // Evaluate multiplication and division operations first
-        for (int i = 0; i < operators.size(); i++) {
-            char operator = operators.get(i);
-            if (operator == '*' || operator == '/') {
-                double result = operator == '*' ? numbers.get(i) * numbers.get(i + 1) : numbers.get(i) / numbers.get(i + 1);
-                numbers.set(i, result);
-                numbers.remove(i + 1);
-                operators.remove(i);
-                i--;
-            }
-        }
-        // Evaluate addition and subtraction operations
-        double result = numbers.get(0);
-        for (int i = 0; i < operators.size(); i++) {
-            double number = numbers.get(i + 1);
-            switch (operators.get(i)) {
-                case '+':
-                    result += number;
-                    break;
-                case '-':
-                    result -= number;
-                    break;
-                default:
-                    throw new IllegalArgumentException("Unexpected operator: " + operators.get(i));
+    @Override
+    public String getColorCharacters() {
+        long key = maskKey(hints);
+        if (key != hintsViewKey) {
+            StringBuilder colors = new StringBuilder(64);
+            for (int color : DISPLAY_ORDER) {
+                colors.append(COLOR_NAMES[color]).append(": ").append(Symbols.setOf(hints[color])).append('\n');
             }
+            hintsView = colors.toString();
+            hintsViewKey = key;
         }
-        return result;
+        return hintsView;
+    }
+
+    /**
+     * Returns the three masks of a keyboard state as one value, to tell whether a view is still up to date.
+     */
+    private static long maskKey(short[] masks) {
+        return (masks[0] & 0xFFFFL) | (masks[1] & 0xFFFFL) << 16 | (masks[2] & 0xFFFFL) << 32;
     }
 
     /**
-     * Retrieves a list of unused characters from the character map.
+     * Returns the feedback of the last valid guess as a list of "0" (green), "1" (orange) and "2" (gray).
+     * The list is a view built from the packed feedback, it is empty after an invalid guess.
      *
-     * @return List of unused characters
+     * @return The colors of the last guess.
      */
     @Override
-    public List<Character> getUnusedCharacters() {
-        // Initialize a list of characters including digits and arithmetic operators
-        List<Character> unusedCharacters = new ArrayList<>(Arrays.asList('0', '1', '2', '3', '4', '5', '6', '7', '8', '9', '+', '-', '*', '/'));
-        // Iterate through each set of used characters in the map
-        for (Set<Character> usedChars : map.values()) {
-            // Remove used characters from the list of unused characters
-            unusedCharacters.removeAll(usedChars);
+    public ArrayList<String> getColors(){
+        if (colorsStale) {
+            Feedback.toColorStrings(feedback, feedbackLength, colors);
+            colorsStale = false;
         }
-        return unusedCharacters;
+        return colors;
     }
 
     /**
-     * Retrieves a formatted string containing color names and associated characters.
+     * Returns the feedback of the last valid guess packed as 2 bits per position, see Feedback.
      *
-     * @return Formatted string with color names and characters
+     * @return The packed feedback, 0 if the guess was correct or if there is no feedback yet.
      */
     @Override
-    public String getColorCharacters() {
-        // Initialize an empty string to store color-character pairs
-        String colors="";
-        // Iterate through each entry in the colorCharacters map
-        for (Map.Entry<String, HashSet<Character>> entry : colorCharacters.entrySet()) {
-            // Get the color name and associated character set
-            String color = entry.getKey();
-            HashSet<Character> characters = entry.getValue();
-            // Append color name and characters to the colors string
-            colors += color+": " + characters+"\n";
+    public int getFeedback() {
+        return feedback;
+    }
+
+    /**
+     * Returns the candidates, rebuilding them from the guess history if the model was restored from a snapshot.
+     */
+    private long[] candidates() {
+        if (candidates == null) {
+            candidates = usesDictionary() && !dictionary.isEmpty() ? dictionary.getConstraintIndex().allCandidates() : new long[0];
+            if (candidates.length > 0) {
+                for (int i = 0; i < guessCount; i++) {
+                    String guess = Symbols.unpack(guesses[i], targetNumber.length());
+                    dictionary.getConstraintIndex().filter(candidates, guess, Feedback.score(guess, targetNumber));
+                }
+            }
         }
-    	return colors;
+        return candidates;
     }
 
+    /**
+     * Counts the dictionary equations that are still consistent with the feedback of the guesses so far.
+     *
+     * @return The number of remaining candidates.
+     */
     @Override
-    public ArrayList<String> getColors(){
-        return colors;
+    public int remainingCandidateCount() {
+        return ConstraintIndex.count(candidates());
+    }
+
+    /**
+     * Iterates over the dictionary equations that are still consistent with the feedback of the guesses so far.
+     * The iterator must not be used after the next guess.
+     *
+     * @return An iterator over the remaining candidates, in dictionary order.
+     */
+    @Override
+    public Iterator<String> remainingCandidates() {
+        return ConstraintIndex.iterator(candidates(), dictionary);
     }
 
+    /**
+     * Returns the bus the model publishes its GameEvents on. Listeners subscribe to it instead of
+     * polling the model, synchronously or on an executor of their choice.
+     *
+     * @return The event bus of this model.
+     */
+    @Override
+    public GameEventBus getEventBus() {
+        return events;
+    }
+
+    /**
+     * Returns the characters shown in each colour on the keyboard since the last game over, by colour name.
+     * Only colours with at least one character have an entry. The map is an immutable view of the keyboard
+     * masks, built again only when they change.
+     *
+     * @return The keyboard colours.
+     */
     @Override
     public Map<String, Set<Character>> getMap() {
-        return map;
+        long key = maskKey(marked);
+        if (key != markedViewKey) {
+            Map<String, Set<Character>> view = new LinkedHashMap<>(4);
+            for (int color : DISPLAY_ORDER) {
+                if (marked[color] != 0) {
+                    view.put(COLOR_NAMES[color], Symbols.setOf(marked[color]));
+                }
+            }
+            markedView = Collections.unmodifiableMap(view);
+            markedViewKey = key;
+        }
+        return markedView;
+    }
+
+    /**
+     * Returns the characters shown in one colour on the keyboard since the last game over, as a mask.
+     *
+     * @param color The colour, Feedback.GREEN, ORANGE or GRAY.
+     * @return The mask of the characters, bit i for the symbol of index i (see Symbols).
+     */
+    @Override
+    public short getKeyboardMask(int color) {
+        return marked[color];
     }
 
     @Override
@@ -376,6 +528,119 @@ public class NumberleModel extends Observable implements INumberleModel {
     	this.isRandom=random;
     }
 
+    /**
+     * Sets the number of characters of the equations of the games started from now on.
+     * Games of the dictionary's length draw their targets from it, other lengths from an EquationSpace.
+     *
+     * @param length The length, between MIN_EQUATION_LENGTH and MAX_EQUATION_LENGTH.
+     * @throws IllegalArgumentException If the length is out of range.
+     */
+    @Override
+    public void setEquationLength(int length) {
+        if (length < MIN_EQUATION_LENGTH || length > MAX_EQUATION_LENGTH) {
+            throw new IllegalArgumentException("Equation length must be between " + MIN_EQUATION_LENGTH + " and "
+                    + MAX_EQUATION_LENGTH + ": " + length);
+        }
+        this.nextEquationLength = length;
+    }
+
+    /**
+     * Sets the number of attempts of the games started from now on.
+     *
+     * @param attempts The attempts, between 1 and MAX_SUPPORTED_ATTEMPTS.
+     * @throws IllegalArgumentException If the attempts are out of range.
+     */
+    @Override
+    public void setMaxAttempts(int attempts) {
+        if (attempts < 1 || attempts > MAX_SUPPORTED_ATTEMPTS) {
+            throw new IllegalArgumentException("Attempts must be between 1 and " + MAX_SUPPORTED_ATTEMPTS + ": "
+                    + attempts);
+        }
+        this.nextMaxAttempts = attempts;
+    }
+
+    /**
+     * @return The number of characters of the equations of the current game.
+     */
+    @Override
+    public int getEquationLength() {
+        return equationLength;
+    }
+
+    /**
+     * @return The number of attempts of the current game.
+     */
+    @Override
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Tells whether the current game is played with the dictionary: its targets come from it and its
+     * candidates are tracked. Games of other lengths have no candidates.
+     */
+    private boolean usesDictionary() {
+        return equationLength == (dictionary.isEmpty() ? EQUATION_LENGTH : dictionary.getEquationLength());
+    }
+
+    /**
+     * Sets where the target of each game and the feedback of each guess are traced. The default sink keeps
+     * nothing and costs nothing; the CLI and GUI applications trace to the console, as required by flag2.
+     *
+     * @param trace The trace sink, which may be shared with other models.
+     */
+    public void setTraceSink(TraceSink trace) {
+        this.trace = trace == null ? TraceSink.NOOP : trace;
+    }
+
+    /**
+     * Sets the cache evaluateExpression looks guesses up in. By default every guess is evaluated, which is
+     * cheap for one player; a cache pays off when many models share it, as the sessions of a server do.
+     *
+     * @param validationCache The cache, which may be shared with other models, or null for none.
+     */
+    public void setValidationCache(ValidationCache validationCache) {
+        this.validationCache = validationCache;
+    }
+
+    /**
+     * Writes the state of the game as a snapshot, see GameSnapshot for the format.
+     * The random generator, the trace sink and the event listeners are not part of the game and are not written.
+     *
+     * @param out The buffer to write to, from its position. GameSnapshot.MAX_BYTES are always enough.
+     * @throws java.nio.BufferOverflowException If the buffer is too small.
+     */
+    public void writeSnapshot(ByteBuffer out) {
+        int length = targetNumber.length();
+        out.put(GameSnapshot.VERSION);
+        out.put((byte) ((gameWon ? GameSnapshot.WON : 0) | (isRandom ? GameSnapshot.RANDOM : 0)
+                | (feedbackLength > 0 ? GameSnapshot.HAS_FEEDBACK : 0)));
+        out.put((byte) length);
+        out.put((byte) remainingAttempts);
+        out.put((byte) maxAttempts);
+        out.put((byte) guessCount);
+        out.putLong(Symbols.pack(targetNumber));
+        for (int i = 0; i < guessCount; i++) {
+            out.putLong(guesses[i]);
+        }
+        if (feedbackLength > 0) {
+            out.putInt(feedback);
+        }
+        for (short mask : marked) {
+            out.putShort(mask);
+        }
+        for (short mask : hints) {
+            out.putShort(mask);
+        }
+        long current = currentGuess.length() > 0 ? Symbols.pack(currentGuess) : -1;
+        if (current == -1) {
+            out.put((byte) 0); // Empty, or not a packable equation in progress
+        } else {
+            out.put((byte) currentGuess.length());
+            out.putLong(current);
+        }
+    }
+
     @Override
     public boolean isGameOver() {
         return remainingAttempts <= 0 || gameWon;
@@ -403,7 +668,49 @@ public class NumberleModel extends Observable implements INumberleModel {
 
     @Override
     public void startNewGame() {
+        if (!GameMetrics.on()) {
+            initialize();
+            return;
+        }
+        long start = System.nanoTime();
         initialize();
+        GameMetrics.get().startNewGame(System.nanoTime() - start);
+    }
+
+    /**
+     * Tells the listeners about the game restored from a snapshot with a GameResumed event.
+     * Listeners subscribed after the restore, such as a GameJournal recorder, need it to follow the game.
+     */
+    public void resume() {
+        events.publish(new GameEvent.GameResumed(maxAttempts, remainingAttempts, targetNumber));
+    }
+
+    /**
+     * Starts a new game with the given target instead of a generated one, so that JournalReplay can
+     * rebuild the games recorded in a journal.
+     *
+     * @param target The target equation of the game.
+     */
+    void startNewGame(String target) {
+        replayTarget = target;
+        try {
+            initialize();
+        } finally {
+            replayTarget = null;
+        }
+    }
+
+    /**
+     * Starts a game with the given target and attempts left, so that JournalReplay can rebuild the games
+     * recorded from a RESUME record. The guesses made before are not recorded, so the keyboard and the candidates
+     * start afresh, which does not change the result or the feedback of the later guesses.
+     *
+     * @param target            The target equation of the game.
+     * @param remainingAttempts The attempts left, at most the attempts set for the game.
+     */
+    void resumeGame(String target, int remainingAttempts) {
+        startNewGame(target);
+        this.remainingAttempts = remainingAttempts;
     }
 }
 
@@ -1,6 +1,10 @@
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class NumberleModelTest {
@@ -117,5 +121,102 @@ public class NumberleModelTest {
         assertFalse(model.isGameWon());
 
     }
+
+    /**
+     * Tests the events published for a game: a rejected guess, a scored guess and the winning guess.
+     * A synchronous listener receives them before processInput returns, with the feedback and the attempts left.
+     *
+     * @post The listener received GuessRejected, GuessScored and GameEnded in order.
+     */
+    @Test
+    public void testEvents() {
+        List<GameEvent> events = new ArrayList<>();
+        model.getEventBus().subscribe(events::add);
+        model.processInput("1+2+3=7"); // Not equal
+        model.processInput("3+2+2=7"); // Valid but wrong
+        short[] masks = {model.getKeyboardMask(Feedback.GREEN), model.getKeyboardMask(Feedback.ORANGE),
+                model.getKeyboardMask(Feedback.GRAY)};
+        model.processInput("1+2+3=6"); // Correct
+        assertEquals(new GameEvent.GuessRejected("1+2+3=7", GameEvent.GuessRejected.NOT_EQUAL), events.get(0));
+        GameEvent.GuessScored scored = (GameEvent.GuessScored) events.get(1);
+        assertEquals(new GameEvent.GuessScored("3+2+2=7", Feedback.score("3+2+2=7", "1+2+3=6"),
+                NumberleModel.MAX_ATTEMPTS - 1, scored.keyboardMasks()), scored);
+        for (int color = 0; color < masks.length; color++) {
+            assertEquals(masks[color], scored.keyboardMask(color));
+        }
+        assertNotEquals(0, masks[Feedback.GREEN]);
+        assertEquals(new GameEvent.GameEnded("1+2+3=6", 0, NumberleModel.MAX_ATTEMPTS - 2, true, "1+2+3=6"),
+                events.get(2));
+        assertEquals(3, events.size());
+    }
+
+    /**
+     * Tests that a game suspended to a snapshot and restored goes on exactly where it was.
+     *
+     * @post The restored model has the same target, attempts, hints and feedback, and can win the game.
+     */
+    @Test
+    public void testSnapshot() {
+        model.processInput("3+2+2=7");
+        model.processInput("1+2+3=7"); // Rejected, not part of the history
+        model.processInput("2*8-9=7");
+        ByteBuffer buffer = ByteBuffer.allocate(GameSnapshot.MAX_BYTES);
+        model.writeSnapshot(buffer);
+        buffer.flip();
+        assertEquals(47, buffer.remaining()); // 27 bytes, 8 per guess and 4 for the feedback
+
+        NumberleModel restored = new NumberleModel(EquationDictionary.getDefault(), buffer);
+        assertEquals(0, buffer.remaining());
+        assertEquals(model.getTargetNumber(), restored.getTargetNumber());
+        assertEquals(model.getRemainingAttempts(), restored.getRemainingAttempts());
+        assertEquals(model.getFeedback(), restored.getFeedback());
+        assertEquals(model.getColors(), restored.getColors());
+        assertEquals(model.getMap(), restored.getMap());
+        assertEquals(model.getColorCharacters(), restored.getColorCharacters());
+        assertEquals(model.getUnusedCharacters(), restored.getUnusedCharacters());
+        assertEquals(model.remainingCandidateCount(), restored.remainingCandidateCount());
+        assertEquals(5, restored.processInput("1+2+3=6"));
+        assertTrue(restored.isGameWon());
+    }
+
+    /**
+     * Tests that a snapshot with a current guess longer than any packed equation is rejected.
+     *
+     * @post Restoring it throws IllegalArgumentException instead of restoring a 100-character guess.
+     */
+    @Test
+    public void testCorruptSnapshot() {
+        model.getCurrentGuess().append("1+2");
+        ByteBuffer buffer = ByteBuffer.allocate(GameSnapshot.MAX_BYTES);
+        model.writeSnapshot(buffer);
+        buffer.flip();
+        buffer.put(buffer.limit() - 9, (byte) 100); // The length of the current guess, before the packed guess
+        assertThrows(IllegalArgumentException.class,
+                () -> new NumberleModel(EquationDictionary.getDefault(), buffer));
+    }
+
+    /**
+     * Tests that models sharing a validation cache validate guesses as without it, and find repeated guesses in it.
+     *
+     * @post The second model gives the same result codes, each from the cache.
+     */
+    @Test
+    public void testValidationCache() {
+        ValidationCache cache = new ValidationCache(1024);
+        NumberleModel other = new NumberleModel();
+        other.startNewGame();
+        model.setValidationCache(cache);
+        other.setValidationCache(cache);
+        String[] guesses = {"3+2+2=7", "1+2+3=7", "1+2+3+4", "1++2=33"};
+        for (String guess : guesses) {
+            assertEquals(ExpressionEvaluator.evaluate(guess), model.evaluateExpression(guess));
+        }
+        for (String guess : guesses) {
+            assertEquals(ExpressionEvaluator.evaluate(guess), other.evaluateExpression(guess));
+        }
+        assertEquals(guesses.length, cache.getMisses());
+        assertEquals(guesses.length, cache.getHits());
+        assertEquals(guesses.length, cache.size());
+    }
     
 }
@@ -0,0 +1,205 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * The NumberleSolver class suggests the next guess of a Numberle game from the feedback received so far.
+ * It keeps the dictionary equations that are still consistent with the feedback as a bitset (one bit per
+ * dictionary index), narrowed down with the ConstraintIndex of the dictionary, and suggests the candidate whose
+ * feedback splits the remaining candidates into the most even partitions, that is the guess with the highest
+ * expected information.
+ * To answer within a few milliseconds on large dictionaries, at most GUESS_POOL guesses are rated, each against
+ * at most CANDIDATE_SAMPLE candidates drawn uniformly from the remaining ones, and guesses are rated in parallel.
+ * Equations are read from the dictionary when a guess is rated: only the sampled candidates are decoded, into a
+ * scratch array of the call, so a solver holds no copy of the dictionary and one per thread stays cheap.
+ * A solver follows one game at a time and is not thread-safe; create one per game or per thread.
+ */
+public final class NumberleSolver {
+    /** The maximum number of guesses rated by suggest(). */
+    public static final int GUESS_POOL = 128;
+    /** The maximum number of candidates each guess is rated against. */
+    public static final int CANDIDATE_SAMPLE = 2048;
+
+    // Per thread open addressing table counting the candidates of each feedback pattern
+    private static final int TABLE_SIZE = Integer.highestOneBit(CANDIDATE_SAMPLE) * 4;
+    private static final ThreadLocal<int[][]> TABLES =
+            ThreadLocal.withInitial(() -> new int[][]{new int[TABLE_SIZE], new int[TABLE_SIZE]});
+
+    private final EquationDictionary dictionary;
+    private final FeedbackMatrix feedbackMatrix;
+    private final ConstraintIndex index;
+    private long[] candidates;
+    private int remaining;
+    private final Random random = new Random(0);
+    private String opening; // Suggestion for the full dictionary, computed once
+
+    /**
+     * Creates a solver over the given dictionary, which scores guesses directly.
+     *
+     * @param dictionary The dictionary the target is drawn from.
+     */
+    public NumberleSolver(EquationDictionary dictionary) {
+        this(dictionary, null);
+    }
+
+    /**
+     * Creates a solver over the given dictionary.
+     *
+     * @param dictionary     The dictionary the target is drawn from.
+     * @param feedbackMatrix The feedback matrix of that dictionary, or null to score guesses directly.
+     */
+    public NumberleSolver(EquationDictionary dictionary, FeedbackMatrix feedbackMatrix) {
+        this.dictionary = dictionary;
+        this.feedbackMatrix = feedbackMatrix;
+        this.index = dictionary.getConstraintIndex();
+        reset();
+    }
+
+    /**
+     * Starts a new game: every dictionary equation is a candidate again.
+     */
+    public void reset() {
+        candidates = index.allCandidates();
+        remaining = dictionary.size();
+    }
+
+    /**
+     * Removes the candidates that are not consistent with the feedback of a guess,
+     * as returned by INumberleModel.getFeedback() after a valid processInput.
+     *
+     * @param guess    The guessed equation.
+     * @param feedback The packed feedback of the guess, see Feedback.
+     */
+    public void apply(String guess, int feedback) {
+        index.filter(candidates, guess, feedback);
+        remaining = ConstraintIndex.count(candidates);
+    }
+
+    /**
+     * @return The number of dictionary equations still consistent with the feedback.
+     */
+    public int remaining() {
+        return remaining;
+    }
+
+    /**
+     * Checks whether a dictionary equation is still consistent with the feedback.
+     *
+     * @param index The index of the equation in the dictionary.
+     */
+    public boolean isCandidate(int index) {
+        return (candidates[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Suggests the next guess, the remaining candidate with the highest expected information.
+     *
+     * @return The suggested equation, or null if no candidate is left.
+     */
+    public String suggest() {
+        if (remaining == 0) {
+            return null;
+        }
+        if (remaining == dictionary.size() && opening != null) {
+            return opening;
+        }
+        int[] all = candidateIndices();
+        if (all.length <= 2) {
+            // Any split is as good as another, guess a candidate that may win right away
+            return dictionary.get(all[0]);
+        }
+        int[] guesses = sample(all, GUESS_POOL);
+        int[] sample = sample(all, CANDIDATE_SAMPLE);
+        // Without a feedback matrix, the sampled candidates are decoded once for all the guesses
+        char[][] sampleChars = feedbackMatrix != null ? null : decode(sample);
+        double[] information = new double[guesses.length];
+        IntStream.range(0, guesses.length).parallel()
+                .forEach(i -> information[i] = expectedInformation(guesses[i], sample, sampleChars));
+        int best = 0;
+        for (int i = 1; i < guesses.length; i++) {
+            if (information[i] > information[best]) {
+                best = i;
+            }
+        }
+        String suggestion = dictionary.get(guesses[best]);
+        if (remaining == dictionary.size()) {
+            opening = suggestion;
+        }
+        return suggestion;
+    }
+
+    /**
+     * Decodes the equations at some indices of the dictionary.
+     */
+    private char[][] decode(int[] indices) {
+        char[][] chars = new char[indices.length][];
+        for (int i = 0; i < indices.length; i++) {
+            chars[i] = new char[dictionary.getLength(indices[i])];
+            dictionary.getChars(indices[i], chars[i]);
+        }
+        return chars;
+    }
+
+    /**
+     * Computes the entropy, in bits, of the feedback of a guess over a sample of candidates.
+     *
+     * @param sampleChars The decoded candidates of the sample, or null to score from the feedback matrix.
+     */
+    private double expectedInformation(int guess, int[] sample, char[][] sampleChars) {
+        int[][] table = TABLES.get();
+        int[] keys = table[0];
+        int[] counts = table[1];
+        Arrays.fill(counts, 0);
+        int mask = TABLE_SIZE - 1;
+        char[] guessChars = null;
+        if (sampleChars != null) {
+            guessChars = new char[dictionary.getLength(guess)];
+            dictionary.getChars(guess, guessChars);
+        }
+        for (int i = 0; i < sample.length; i++) {
+            int feedback = sampleChars == null ? feedbackMatrix.get(guess, sample[i])
+                    : Feedback.score(guessChars, sampleChars[i], guessChars.length);
+            int slot = (feedback * 0x9E3779B9) >>> 16 & mask;
+            while (counts[slot] != 0 && keys[slot] != feedback) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = feedback;
+            counts[slot]++;
+        }
+        double sum = 0;
+        for (int count : counts) {
+            if (count > 1) {
+                sum += count * Math.log(count);
+            }
+        }
+        return (Math.log(sample.length) - sum / sample.length) / Math.log(2);
+    }
+
+    private int[] candidateIndices() {
+        int[] indices = new int[remaining];
+        int n = 0;
+        for (int w = 0; w < candidates.length; w++) {
+            for (long bits = candidates[w]; bits != 0; bits &= bits - 1) {
+                indices[n++] = (w << 6) + Long.numberOfTrailingZeros(bits);
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * Draws up to limit distinct elements uniformly (partial Fisher-Yates shuffle on a copy).
+     */
+    private int[] sample(int[] indices, int limit) {
+        if (indices.length <= limit) {
+            return indices;
+        }
+        int[] copy = indices.clone();
+        for (int i = 0; i < limit; i++) {
+            int j = i + random.nextInt(copy.length - i);
+            int t = copy[i];
+            copy[i] = copy[j];
+            copy[j] = t;
+        }
+        return Arrays.copyOf(copy, limit);
+    }
+}
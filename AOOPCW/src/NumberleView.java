@@ -1,59 +1,124 @@
 import javax.swing.*;
 import javax.swing.Timer;
 import javax.swing.border.AbstractBorder;
-import javax.swing.border.Border;
-import javax.swing.event.DocumentEvent;
-import javax.swing.event.DocumentListener;
 import java.awt.*;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
 import java.util.*;
-import java.util.Observer;
+import java.util.concurrent.CompletableFuture;
 
 
 /**
  * The NumberleView class represents the graphical user interface (GUI) of the Numberle game.
- * It implements the Observer interface to receive updates from the NumberleModel and interacts
+ * It subscribes to the GameEvents of the model to receive updates and interacts
  * with the NumberleController to handle user input and game logic.
  */
-public class NumberleView implements Observer { //Implements Observe
+public class NumberleView {
     private final INumberleModel model;
     private final NumberleController controller;
-    private final JFrame frame = new JFrame("Numberle");
+    private final GameStatistics statistics; // null if the statistics are not kept
+    private final String player;
+    private final JFrame frame;
     private final JTextField inputTextField = new JTextField(3);;
-    private final StringBuilder input;
-    private RoundedTextField[][] fields = new RoundedTextField[INumberleModel.MAX_ATTEMPTS][7];
+    private final StringBuilder input = new StringBuilder(); // The guess being sent
+    // Of the equations; the board is laid out for the length and attempts of the first game, once it has started
+    private int length;
+    private int attempts;
+    private BoardComponent board;
+    private final CompletableFuture<Void> shown;
     private final Map<String, RoundedButton> buttonMap = new HashMap<>();
+    private final RoundedButton[] symbolButtons = new RoundedButton[Symbols.COUNT]; // By symbol index, see Symbols
     private JButton restartGameButton;
+    private ToastOverlay toast;
+    // Started when a game ends, so its last row and message are seen before the next game; a key skips the wait
+    private final Timer nextGameTimer = new Timer(ToastOverlay.DURATION, e -> restartGame());
+    // The last call to the engine; guesses are not sent until it completes, so the model is read by one thread
+    // at a time
+    private CompletableFuture<?> pending = CompletableFuture.completedFuture(null);
     private boolean showErrorMessage=true;
     private int remainingAttempts;
     private int currentPosition = 0;
 
     /**
      * Constructs a NumberleView object with the given model and controller.
-     * This method initializes the view by starting a new game, adding itself as an observer to the model,
-     * initializing the frame, setting the view for the controller, and updating the view with the initial model state.
-     * It also retrieves the current guess from the controller's input.
+     * This method initializes the view by subscribing to the events of the model and starting a new game on the
+     * engine thread; once the game has started, it initializes the frame and sets the view for the controller.
+     * The constructor returns at once, so the event dispatch thread never waits for the engine.
      *
      * @param model      The INumberleModel implementation that provides the game logic and state.
      * @param controller The NumberleController responsible for handling user input and game flow.
      */
     public NumberleView(INumberleModel model, NumberleController controller) {
+        this(model, controller, null, null);
+    }
+
+    /**
+     * Constructs a NumberleView object that can also show the statistics of the player, in a dialog opened
+     * from the Statistics button of the menu bar.
+     *
+     * @param model      The INumberleModel implementation that provides the game logic and state.
+     * @param controller The NumberleController responsible for handling user input and game flow.
+     * @param statistics The statistics the games of the model are recorded in, or null for no Statistics button.
+     * @param player     The player whose statistics are shown.
+     */
+    public NumberleView(INumberleModel model, NumberleController controller, GameStatistics statistics,
+                        String player) {
+        this(model, controller, statistics, player, new JFrame("Numberle"));
+    }
+
+    /**
+     * Constructs a NumberleView object in a frame that may already be shown, such as one showing that the game
+     * is loading: its content is replaced by the game.
+     *
+     * @param model      The INumberleModel implementation that provides the game logic and state.
+     * @param controller The NumberleController responsible for handling user input and game flow.
+     * @param statistics The statistics the games of the model are recorded in, or null for no Statistics button.
+     * @param player     The player whose statistics are shown.
+     * @param frame      The frame to show the game in.
+     */
+    public NumberleView(INumberleModel model, NumberleController controller, GameStatistics statistics,
+                        String player, JFrame frame) {
         // Assign the controller and model
+        this.frame = frame;
         this.controller = controller;
         this.model = model;
-        // Start a new game
-        this.controller.startNewGame();
-        // Add this view as an observer to the model
-        ((NumberleModel)this.model).addObserver(this); // Calls addObserver
+        this.statistics = statistics;
+        this.player = player;
+        // Receive the events of the model on the event dispatch thread, so guesses are not slowed down by the view
+        this.model.getEventBus().subscribe(this::onGameEvent, SwingUtilities::invokeLater);
+        // Start a new game on the engine, and lay out the frame on the event dispatch thread once it has started,
+        // or failed to start, so the frame never stays on what it showed before and Enter is not blocked
+        this.shown = controller.startNewGameAsync().handleAsync((result, failure) -> {
+            layOut();
+            if (failure != null) {
+                failure.printStackTrace();
+                toast.show("The game could not be started. Press Restart Game to try again.", "Error");
+            }
+            return null;
+        }, SwingUtilities::invokeLater);
+        this.pending = shown;
+    }
+
+    /**
+     * Sizes the board for the equations and attempts of the first game, initializes the frame and sets this view
+     * for the controller. Runs on the event dispatch thread once the game has started, so the model is read
+     * after the engine has written it, or once it has failed to start, with the lengths set for the game.
+     */
+    private void layOut() {
+        length = model.getEquationLength();
+        attempts = model.getMaxAttempts();
+        // Shrink the tiles when there are more rows than the six the frame was designed for
+        board = new BoardComponent(attempts, length, 45, Math.min(56, 6 * 61 / attempts - 5));
         // Initialize the graphical user interface (GUI) frame
         initializeFrame();
         // Set this view for the controller
-        this.controller.setView(this);
-        // Update the view with the initial model state
-        update((NumberleModel)this.model, null);
-        // Retrieve the current guess from the controller's input
-        input = controller.getCurrentGuess();
+        controller.setView(this);
+    }
+
+    /**
+     * @return A future completed on the event dispatch thread once the frame shows the first game, or an error
+     * if it could not be started.
+     */
+    public CompletableFuture<Void> whenShown() {
+        return shown;
     }
 
     /**
@@ -61,17 +126,17 @@ public class NumberleView implements Observer { //Implements Observe
      * such as buttons, panels, menus, and event listeners for the game.
      */
     public void initializeFrame() {
+        frame.getContentPane().removeAll();
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         frame.setSize(720, 650);
         frame.setLayout(new BorderLayout(0,10));
         frame.setResizable(false);
         frame.setBackground(Color.WHITE);
+        toast = new ToastOverlay(frame);
+        nextGameTimer.setRepeats(false);
 
         JPanel northPanel = new JPanel(new BorderLayout());
-        ImageIcon icon = new ImageIcon("icon.png");
-        Image scaledImage = icon.getImage().getScaledInstance(200, 50, Image.SCALE_SMOOTH);
-        icon = new ImageIcon(scaledImage);
-        JLabel iconLabel = new JLabel(icon);
+        JLabel iconLabel = new JLabel(new ImageIcon(GameAssets.getDefault().getLogo()));
         northPanel.add(iconLabel, BorderLayout.WEST);
         frame.add(northPanel, BorderLayout.NORTH);
 
@@ -106,35 +171,21 @@ public class NumberleView implements Observer { //Implements Observe
         randomEquationButton.setForeground(buttonTextColor);
         randomEquationButton.setBackground(buttonBackgroundColor);
         menuBar.add(randomEquationButton);
+
+        if (statistics != null) {
+            JButton statisticsButton = new JButton("Statistics");
+            statisticsButton.addActionListener(e -> showStatistics());
+            statisticsButton.setForeground(buttonTextColor);
+            statisticsButton.setBackground(buttonBackgroundColor);
+            menuBar.add(statisticsButton);
+        }
         frame.setJMenuBar(menuBar);
 
         JPanel center = new JPanel();
         center.setLayout(new BoxLayout(center, BoxLayout.X_AXIS));
         center.add(new JPanel());
         center.setBackground(Color.WHITE);
-        JPanel displayPanel = new JPanel();
-        displayPanel.setLayout(new GridLayout(6, 7, 5, 5));
-        displayPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
-        Font font = new Font("Verdana", Font.PLAIN, 25);
-        Border roundedBorder = new RoundedBorder(10);
-        Dimension squareDimension = new Dimension(45, 56);
-        Color borderColor = Color.decode("#DCE1ED");
-        Color highlightBorderColor = Color.GRAY;
-        Color textColor = Color.decode("#5A6376");
-        for (int i = 0; i < INumberleModel.MAX_ATTEMPTS; i++) {
-            for (int j = 0; j < 7; j++) {
-                fields[i][j] = new RoundedTextField(10,borderColor, highlightBorderColor);
-                fields[i][j].setEditable(false);
-                fields[i][j].setHorizontalAlignment(JTextField.CENTER);
-                fields[i][j].setFont(font);
-                fields[i][j].setForeground(textColor);  // Applying the color to the text
-                fields[i][j].setBorder(roundedBorder);
-                fields[i][j].setPreferredSize(squareDimension);
-                fields[i][j].setBackground(Color.decode("#e6e9ed"));
-                displayPanel.add(fields[i][j]);
-            }
-        }
-        center.add(displayPanel);
+        center.add(board);
         center.add(new JPanel());
         frame.add(center, BorderLayout.CENTER);
 
@@ -147,17 +198,19 @@ public class NumberleView implements Observer { //Implements Observe
         String[] numberKeys = {"1", "2", "3", "4", "5", "6", "7", "8", "9", "0"};
         for (String key : numberKeys) {
             RoundedButton button = new RoundedButton(key, buttonBackgroundColor, buttonTextColor);
-            button.setFont(new Font("Verdana", Font.PLAIN, 20));
+            button.setFont(GameAssets.getDefault().getDigitFont());
             button.setPreferredSize(new Dimension(30,55));
             button.setBorder(new RoundedBorder(10));
             button.setBorderPainted(false);
             button.addActionListener(e -> {
-                if (currentPosition < 7) {
-                    fields[remainingAttempts][currentPosition].setText(key);
+                skipToNextGame();
+                if (currentPosition < length) {
+                    board.setSymbol(remainingAttempts, currentPosition, key.charAt(0));
                     currentPosition++;
                 }
             });
             buttonMap.put(key, button);
+            symbolButtons[Symbols.indexOf(key.charAt(0))] = button;
             numberPanel.add(button);
         }
         JPanel operationPanel = new JPanel(new GridLayout(1, 14, 5, 5));
@@ -167,26 +220,30 @@ public class NumberleView implements Observer { //Implements Observe
         int y = 0;
         for (String key : operationKeys) {
             RoundedButton button = new RoundedButton(key, buttonBackgroundColor, buttonTextColor);
-            button.setFont(new Font("Verdana", Font.PLAIN, 25));
+            button.setFont(GameAssets.getDefault().getSymbolFont());
             int width = key.equals("Back") || key.equals("Enter") ? 158 : 70;
             button.setBounds(x,y,width,55);
             x += width * 1.03;
             button.setBorder(new RoundedBorder(10));
             button.setBorderPainted(false);
             button.addActionListener(e -> {
-                if (currentPosition <= 7) {
+                skipToNextGame();
+                if (currentPosition <= length) {
                     switch (key) {
                         case "Back":
                             if (currentPosition > 0) {
-                                fields[remainingAttempts][currentPosition - 1].setText("");
+                                board.setSymbol(remainingAttempts, currentPosition - 1, (char) 0);
                                 currentPosition--;
                             }
                             break;
                         case "Enter":
+                            if (!pending.isDone()) {
+                                break; // The last guess or new game is still being processed
+                            }
                             for (int i = 0; i < currentPosition; i++) {
-                                input.append(fields[remainingAttempts][i].getText());
+                                input.append(board.getSymbol(remainingAttempts, i));
                             }
-                            controller.processInput(input.toString());
+                            pending = controller.processInputAsync(input.toString());
                             break;
 
                         case "+":
@@ -194,8 +251,8 @@ public class NumberleView implements Observer { //Implements Observe
                         case "*":
                         case "/":
                         case "=":
-                            if (currentPosition < 6) {
-                                fields[remainingAttempts][currentPosition].setText(key);
+                            if (currentPosition < length - 1) {
+                                board.setSymbol(remainingAttempts, currentPosition, key.charAt(0));
                                 currentPosition++;
                             }
                             break;
@@ -203,92 +260,68 @@ public class NumberleView implements Observer { //Implements Observe
                 }
             });
             buttonMap.put(key, button);
+            if (key.length() == 1) {
+                symbolButtons[Symbols.indexOf(key.charAt(0))] = button;
+            }
             operationPanel.add(button);
         }
         keyboardPanel.add(numberPanel, BorderLayout.NORTH);
         keyboardPanel.add(operationPanel, BorderLayout.SOUTH);
         frame.add(keyboardPanel, BorderLayout.SOUTH);
         frame.setVisible(true);
+        frame.revalidate(); // In case the frame was already shown
+        frame.repaint();
     }
 
     /**
-     * This method is an override of the update() method from the Observable class.
-     * It is used to update the view based on changes in the model, specifically for the Numberle game.
+     * Updates the view when the model publishes a GameEvent. The view subscribes with SwingUtilities::invokeLater
+     * as the executor, so this runs on the event dispatch thread after the guess has been processed,
+     * and the feedback and attempts left are taken from the event.
      *
-     * @param o   The Observable object.
-     * @param arg The argument passed when the Observable object is updated.
+     * @param event The event published by the model.
      */
-    @Override
-    public void update(Observable o, Object arg) {
-        if (arg instanceof String) {
-            String message = (String) arg;
-            switch (message) {
-                case "Invalid Input":
-                	if(showErrorMessage) {
-                		new TimedRoundedDialog(frame, message, "").setVisible(true);
-                	}
-                    currentPosition = input.length();
-                    remainingAttempts = INumberleModel.MAX_ATTEMPTS - controller.getRemainingAttempts();
-                    input.setLength(0);
-                    break;
-                case "Game Won":
-                    showColor();
-                    new TimedRoundedDialog(frame, "Congratulations! You won the game!", "").setVisible(true);
-                    controller.startNewGame();
-                    clearAllContent();
-                    resetButtonColors();
-                    currentPosition = 0;
-                    remainingAttempts = INumberleModel.MAX_ATTEMPTS - controller.getRemainingAttempts();
-                    input.setLength(0);
+    private void onGameEvent(GameEvent event) {
+        if (event instanceof GameEvent.GuessRejected rejected) {
+            String message;
+            String title;
+            switch (rejected.reason()) {
+                case GameEvent.GuessRejected.NO_EQUAL:
+                    message = "No equal '=' sign.";
+                    title = "No Equal";
                     break;
-                case "Game Over":
-                    showColor();
-                    new TimedRoundedDialog(frame, message + "! No Attempts! The correct equation was: " + controller.getTargetWord(), "",600,100).setVisible(true);
-                    controller.startNewGame();
-                    clearAllContent();
-                    resetButtonColors();
-                    currentPosition = 0;
-                    remainingAttempts = INumberleModel.MAX_ATTEMPTS - controller.getRemainingAttempts();
-                    input.setLength(0);
+                case GameEvent.GuessRejected.MISSING_SYMBOLS:
+                    message = "There must be at least one '+-×÷'.";
+                    title = "Missing Symbols";
                     break;
-                case "Try Again":
-                    showColor();
-                    setButtonColors();
-                    for (int j = 0; j < 7; j++) {
-                        fields[remainingAttempts][j].resetBorderColor();
-                        fields[remainingAttempts][j].setForeground(Color.WHITE); // Change text color to white in the guess fields
-
-                    }
-                    new TimedRoundedDialog(frame, message + "! Attempts remaining: " + controller.getRemainingAttempts(), "Try Again").setVisible(true);
-                    currentPosition = 0;
-                    remainingAttempts = INumberleModel.MAX_ATTEMPTS - controller.getRemainingAttempts();
-                    input.setLength(0);
-                    break;
-                case "No Equal":
-                	if(showErrorMessage) {
-                		new TimedRoundedDialog(frame, "No equal '=' sign.", message).setVisible(true);
-                	}
-                    currentPosition = input.length();
-                    remainingAttempts = INumberleModel.MAX_ATTEMPTS - controller.getRemainingAttempts();
-                    input.setLength(0);
-                    break;
-                case "Missing Symbols":
-                	if(showErrorMessage) {
-                		new TimedRoundedDialog(frame, "There must be at least one '+-×÷'.", message).setVisible(true);
-                	}
-                    currentPosition = input.length();
-                    remainingAttempts = INumberleModel.MAX_ATTEMPTS - controller.getRemainingAttempts();
-                    input.setLength(0);
+                case GameEvent.GuessRejected.NOT_EQUAL:
+                    message = "The left side is not equal to the right.";
+                    title = "Not Equal";
                     break;
-                case "Not Equal":
-                	if(showErrorMessage) {
-                		new TimedRoundedDialog(frame, "The left side is not equal to the right.", message).setVisible(true);
-                	}
-                    currentPosition = input.length();
-                    remainingAttempts = INumberleModel.MAX_ATTEMPTS - controller.getRemainingAttempts();
-                    input.setLength(0);
+                default:
+                    message = "Invalid Input";
+                    title = "";
                     break;
             }
+            if(showErrorMessage) {
+                toast.show(message, title);
+            }
+            currentPosition = input.length();
+            input.setLength(0);
+        } else if (event instanceof GameEvent.GameEnded ended) {
+            showColor(ended.feedback());
+            if (ended.won()) {
+                toast.show("Congratulations! You won the game!");
+            } else {
+                toast.show("Game Over! No Attempts! The correct equation was: " + ended.target());
+            }
+            nextGameTimer.restart();
+        } else if (event instanceof GameEvent.GuessScored scored) {
+            showColor(scored.feedback());
+            setButtonColors(scored);
+            toast.show("Try Again! Attempts remaining: " + scored.remainingAttempts(), "Try Again");
+            currentPosition = 0;
+            remainingAttempts = attempts - scored.remainingAttempts();
+            input.setLength(0);
         }
     }
 
@@ -296,32 +329,41 @@ public class NumberleView implements Observer { //Implements Observe
      * Restarts the game by starting a new game, clearing all content on the interface,
      * resetting button colors, resetting the current position, and updating the remaining attempts.
      * This method is called when the user wants to restart the game.
+     * The new game is started on the engine thread, while the cleared board already takes the keys typed;
+     * if a guess is still being processed, the restart waits for it, so its events do not reach the new board.
      */
     private void restartGame() {
-        controller.startNewGame();
+        nextGameTimer.stop();
+        if (!pending.isDone()) {
+            pending.whenComplete((result, failure) -> restartGame());
+            return;
+        }
+        pending = controller.startNewGameAsync();
         clearAllContent();
         resetButtonColors();
         currentPosition = 0;
-        remainingAttempts = INumberleModel.MAX_ATTEMPTS - controller.getRemainingAttempts();
+        remainingAttempts = 0; // The first row, as the board is laid out for the attempts of the games
         input.setLength(0);
     }
 
+    /**
+     * Starts the next game at once if the last one has ended, so a key pressed while its result is shown
+     * goes to the new game.
+     */
+    private void skipToNextGame() {
+        if (nextGameTimer.isRunning()) {
+            restartGame();
+        }
+    }
+
     /**
      * This method is used to clear all content in a GUI.
-     * It iterates through a 2D array of text fields and resets their text, background color,
-     * and border. It also resets the background color and appearance of a collection of buttons.
+     * It empties the board and resets the background color and appearance of a collection of buttons.
      */
     private void clearAllContent() {
-        for (int i = 0; i < INumberleModel.MAX_ATTEMPTS; i++) {
-            for (int j = 0; j < 7; j++) {
-                fields[i][j].setText("");
-                fields[i][j].setBackground(Color.decode("#e6e9ed")); // 设置默认的背景色
-                fields[i][j].setBorder(new RoundedBorder(10));
-            }
-        }
-        Color defaultButtonBackgroundColor = Color.decode("#DCE1ED");
+        board.clear();
         for (RoundedButton button : buttonMap.values()) {
-            button.setBackground(defaultButtonBackgroundColor);
+            button.setBackground(BoardComponent.BORDER_COLOR);
             button.setOpaque(false);
             button.setContentAreaFilled(false);
             button.setBorderPainted(false);
@@ -330,132 +372,34 @@ public class NumberleView implements Observer { //Implements Observe
     }
 
     /**
-     * Displays colors based on the color codes retrieved from the model.
+     * Displays the colors of a guess on its row, which the board reveals tile by tile.
+     *
+     * @param feedback The packed feedback of the guess, see Feedback.
      */
-    private void showColor() {
-        // Loop through the color list in the model
-        for (int i = 0; i < model.getColors().size(); i++) {
-            // Switch statement to set background color based on color code. This is mainly use method in model.
-            switch (model.getColors().get(i)) {
-                case "0":
-                    fields[remainingAttempts][i].setBackground(Color.decode("#2FCEA5"));
-                    break;
-                case "1":
-                    fields[remainingAttempts][i].setBackground(Color.decode("#F79A6F"));
-                    break;
-                case "2":
-                    fields[remainingAttempts][i].setBackground(Color.decode("#A4AEC4"));
-                    break;
-            }
-        }
+    private void showColor(int feedback) {
+        board.reveal(remainingAttempts, feedback);
     }
 
     /**
-     * Sets the colors of buttons based on a predefined mapping of color names to Color objects.
-     * This method iterates through the characters mapped to each color in the provided model
-     * and sets the background color of corresponding buttons to the specified colors.
+     * Sets the colors of buttons based on the keyboard masks carried by a scored guess, one bit per character,
+     * so the model, which the engine thread may already be changing, is not read on the event dispatch thread.
+     * Gray is applied first and green last, so a character shown in several colors ends up in the best one.
+     *
+     * @param scored The event of the scored guess.
      */
-    public void setButtonColors() {
-        Map<String, Color> colorDefinitions = new HashMap<>();
-        colorDefinitions.put("Gray", Color.decode("#A4AEC4"));
-        colorDefinitions.put("Green", Color.decode("#2FCEA5"));
-        colorDefinitions.put("Orange", Color.decode("#F79A6F"));
-
-        for (Map.Entry<String, Set<Character>> entry : model.getMap().entrySet()) {
-            String colorName = entry.getKey();
-            Set<Character> characters = entry.getValue();
-
-            Color color = colorDefinitions.get(colorName);
-            if (color == null) continue;
-
-            for (Character character : characters) {
-                RoundedButton button = buttonMap.get(character.toString());
-                if (button != null) {
-                    button.setBackground(color);
-                    button.setForeground(Color.WHITE);
-                }
-            }
-        }
+    public void setButtonColors(GameEvent.GuessScored scored) {
+        applyButtonColor(scored.keyboardMask(Feedback.GRAY), BoardComponent.FEEDBACK_COLORS[Feedback.GRAY]);
+        applyButtonColor(scored.keyboardMask(Feedback.ORANGE), BoardComponent.FEEDBACK_COLORS[Feedback.ORANGE]);
+        applyButtonColor(scored.keyboardMask(Feedback.GREEN), BoardComponent.FEEDBACK_COLORS[Feedback.GREEN]);
     }
 
-    /**
-     * Custom JTextField with rounded corners and customizable border colors.
-     * This class provides a text field component with rounded corners and the ability to set different border colors.
-     */
-    class RoundedTextField extends JTextField {
-        private int radius;
-        private Color borderColor;
-        private Color highlightBorderColor;
-
-        /**
-         * Constructs a new RoundedTextField.
-         *
-         * @param radius              The radius of the rounded corners.
-         * @param borderColor         The default border color.
-         * @param highlightBorderColor The border color when text is inserted.
-         */
-        public RoundedTextField(int radius, Color borderColor, Color highlightBorderColor) {
-            super();
-            this.radius = radius;
-            this.borderColor = borderColor;
-            this.highlightBorderColor = highlightBorderColor;
-            setOpaque(false);
-            getDocument().addDocumentListener(new DocumentListener() {
-                public void insertUpdate(DocumentEvent e) {
-                    setBorderColor(highlightBorderColor);
-                }
-                public void removeUpdate(DocumentEvent e) {
-                    if (getText().length() == 0) {
-                        setBorderColor(borderColor);
-                    }
-                }
-                public void changedUpdate(DocumentEvent e) { }
-            });
-        }
-        /**
-         * Sets the border color of the text field.
-         *
-         * @ param newColor The new border color to set.
-         */
-        public void setBorderColor(Color newColor) {
-            this.borderColor = newColor;
-            repaint();
-        }
-        /**
-         * Sets the border color of the text field.
-         *
-         * @ param newColor The new border color to set.
-         */
-        public void resetBorderColor() {
-            setBorderColor(Color.decode("#DCE1ED"));
-        }
-        /**
-         * Customizes the painting of the text field component.
-         *
-         * @param g The Graphics context to paint on.
-         */
-        @Override
-        protected void paintComponent(Graphics g) {
-            Graphics2D g2 = (Graphics2D) g.create();
-            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-            g2.setColor(getBackground());
-            g2.fillRoundRect(0, 0, getWidth()-1, getHeight()-1, radius, radius);
-            g2.dispose();
-
-            super.paintComponent(g);
-        }
-        /**
-         * Customizes the painting of the text field border.
-         *
-         * @param g The Graphics context to paint on.
-         */
-        @Override
-        protected void paintBorder(Graphics g) {
-            Graphics2D g2 = (Graphics2D) g.create();
-            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-            g2.setColor(this.borderColor);
-            g2.drawRoundRect(0, 0, getWidth()-1, getHeight()-1, radius, radius);
-            g2.dispose();
+    private void applyButtonColor(int mask, Color color) {
+        for (int bits = mask & Symbols.ALL; bits != 0; bits &= bits - 1) {
+            RoundedButton button = symbolButtons[Integer.numberOfTrailingZeros(bits)];
+            if (button != null) {
+                button.setBackground(color);
+                button.setForeground(Color.WHITE);
+            }
         }
     }
 
@@ -481,10 +425,7 @@ public class NumberleView implements Observer { //Implements Observe
             setForeground(textColor);
             setBackground(backgroundColor);
             if ("Back".equals(label)) {
-                ImageIcon originalIcon = new ImageIcon("deleteIcon.png");
-                Image image = originalIcon.getImage();
-                Image newimg = image.getScaledInstance(40, 30,  java.awt.Image.SCALE_SMOOTH);
-                icon = new ImageIcon(newimg);
+                icon = new ImageIcon(GameAssets.getDefault().getDeleteIcon());
             }
         }
         /**
@@ -556,77 +497,6 @@ public class NumberleView implements Observer { //Implements Observe
         }
     }
 
-    /**
-     * This class represents a timed dialog with rounded corners.
-     * It extends JDialog and provides methods to display a message in a dialog window with a specified time duration.
-     */
-    class TimedRoundedDialog extends JDialog {
-        /**
-         * Constructs a new TimedRoundedDialog with the specified owner frame, message, and title.
-         *
-         * @param owner   the owner frame for the dialog
-         * @param message the message to be displayed in the dialog
-         * @param title   the title of the dialog window
-         */
-        public TimedRoundedDialog(Frame owner, String message, String title ) {
-            super(owner, title, true);
-            setUndecorated(true);
-            setSize(300, 100);
-            setLocationRelativeTo(owner);
-            setLayout(new BorderLayout());
-            display(message);
-        }
-        /**
-         * Constructs a new TimedRoundedDialog with the specified owner frame, message, title, width, and height.
-         *
-         * @param owner   the owner frame for the dialog
-         * @param message the message to be displayed in the dialog
-         * @param title   the title of the dialog window
-         * @param width   the width of the dialog window
-         * @param height  the height of the dialog window
-         */
-        public TimedRoundedDialog(Frame owner, String message, String title ,int width,int height) {
-            super(owner, title, true);
-            setUndecorated(true);
-            setSize(width,height);
-            setLocationRelativeTo(owner);
-            setLayout(new BorderLayout());
-            display(message);
-        }
-        /**
-         * Displays the specified message in the dialog window with rounded corners.
-         *
-         * @param message the message to be displayed in the dialog
-         */
-        public void display(String message) {
-            JPanel panel = new JPanel() {
-                @Override
-                protected void paintComponent(Graphics g) {
-                    super.paintComponent(g);
-                    g.setColor(getBackground());
-                    Graphics2D g2d = (Graphics2D) g;
-                    g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                    g2d.fillRoundRect(0, 0, getWidth(), getHeight(), 30, 30);
-                }
-            };
-            panel.setBackground(Color.WHITE);
-            panel.setLayout(new GridBagLayout());
-            add(panel);
-
-            JLabel label = new JLabel(message, SwingConstants.CENTER);
-            label.setFont(new Font("Verdana", Font.BOLD, 14));
-            panel.add(label);
-
-            Timer timer = new Timer(2000, new ActionListener() {
-                public void actionPerformed(ActionEvent e) {
-                    dispose();
-                }
-            });
-            timer.setRepeats(false);
-            timer.start();
-        }
-    }
-
     /**
      * This class represents a custom toggle button with rounded edges, extending JToggleButton.
      * It is designed to provide a visual representation of a toggle button with rounded corners.
@@ -664,7 +534,74 @@ public class NumberleView implements Observer { //Implements Observe
     }
 
     private void showAnswer() {
-        new TimedRoundedDialog(frame,  "The correct equation was: " + controller.getTargetWord(), "Current Answer").setVisible(true);
+        controller.getTargetWordAsync().thenAccept(target ->
+                toast.show("The correct equation was: " + target, "Current Answer"));
+    }
+
+    /**
+     * Shows the statistics of the player in a modal dialog: the games played, the share won, the current and best
+     * streaks, and a bar per number of guesses for the games won, scaled to the most frequent one.
+     */
+    private void showStatistics() {
+        GameStatistics.Summary summary = statistics.getPlayer(player);
+        Color textColor = Color.decode("#5A6376");
+        JDialog dialog = new JDialog(frame, "Statistics", true);
+        JPanel panel = new JPanel(new BorderLayout(0, 15));
+        panel.setBackground(Color.WHITE);
+        panel.setBorder(BorderFactory.createEmptyBorder(15, 20, 15, 20));
+
+        JPanel totals = new JPanel(new GridLayout(2, 4, 10, 0));
+        totals.setBackground(Color.WHITE);
+        String[] values = {Long.toString(summary.played()), Math.round(summary.winRate() * 100) + "",
+                Long.toString(summary.currentStreak()), Long.toString(summary.maxStreak())};
+        String[] names = {"Played", "Win %", "Current Streak", "Max Streak"};
+        for (String value : values) {
+            JLabel label = new JLabel(value, SwingConstants.CENTER);
+            label.setFont(new Font("Verdana", Font.BOLD, 25));
+            label.setForeground(textColor);
+            totals.add(label);
+        }
+        for (String name : names) {
+            JLabel label = new JLabel(name, SwingConstants.CENTER);
+            label.setFont(new Font("Verdana", Font.PLAIN, 11));
+            label.setForeground(textColor);
+            totals.add(label);
+        }
+        panel.add(totals, BorderLayout.NORTH);
+
+        long[] guessesPerWin = summary.guessesPerWin();
+        long most = 1;
+        int rows = attempts; // One bar per guess of a game, and more if games with more attempts were won
+        for (int guesses = 1; guesses < guessesPerWin.length; guesses++) {
+            most = Math.max(most, guessesPerWin[guesses]);
+            if (guessesPerWin[guesses] > 0) {
+                rows = Math.max(rows, guesses);
+            }
+        }
+        JPanel distribution = new JPanel(new GridLayout(0, 1, 0, 4));
+        distribution.setBackground(Color.WHITE);
+        distribution.setBorder(BorderFactory.createTitledBorder("Guess Distribution"));
+        for (int guesses = 1; guesses <= rows; guesses++) {
+            JPanel row = new JPanel(new BorderLayout(8, 0));
+            row.setBackground(Color.WHITE);
+            JLabel number = new JLabel(Integer.toString(guesses));
+            number.setForeground(textColor);
+            row.add(number, BorderLayout.WEST);
+            JProgressBar bar = new JProgressBar(0, (int) Math.min(most, Integer.MAX_VALUE));
+            bar.setValue((int) Math.min(guessesPerWin[guesses], Integer.MAX_VALUE));
+            bar.setString(Long.toString(guessesPerWin[guesses]));
+            bar.setStringPainted(true);
+            bar.setForeground(Color.decode("#2FCEA5"));
+            bar.setBackground(Color.decode("#e6e9ed"));
+            row.add(bar, BorderLayout.CENTER);
+            distribution.add(row);
+        }
+        panel.add(distribution, BorderLayout.CENTER);
+
+        dialog.add(panel);
+        dialog.setSize(420, 360);
+        dialog.setLocationRelativeTo(frame);
+        dialog.setVisible(true);
     }
 
     private void showError(boolean on) {
@@ -677,16 +614,9 @@ public class NumberleView implements Observer { //Implements Observe
     }
 
     private void resetButtonColors() {
-        Color buttonTextColor = Color.decode("#5A6376"); // 原始的字体颜色
         for (RoundedButton button : buttonMap.values()) {
-            button.setForeground(buttonTextColor);
-        }
-
-        for (int i = 0; i < INumberleModel.MAX_ATTEMPTS; i++) {
-            for (int j = 0; j < 7; j++) {
-                fields[i][j].setForeground(buttonTextColor);
-            }
+            button.setForeground(BoardComponent.TEXT_COLOR); // 原始的字体颜色
         }
     }
 
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,210 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * The PackedDictionary class reads and writes dictionaries in a packed binary file, as an alternative to the
+ * text equations file. Each equation is packed by Symbols.pack, 4 bits per symbol, into an int (4 bytes) if it
+ * has at most 8 symbols, or a long (8 bytes) otherwise, where the text file takes a line and the heap a String
+ * of about 56 bytes.
+ * The file starts with a 32 byte header (magic, version, equation count, equation length, bytes per entry and
+ * the checksum of the dictionary, the same as EquationDictionary.getChecksum), followed by the entries in
+ * dictionary order. It is memory-mapped read-only, so the entries stay outside the Java heap, and an entry is
+ * only decoded when it is requested.
+ * Usage: java PackedDictionary [equations file] [output file]
+ */
+public final class PackedDictionary {
+    /** The file the default packed dictionary is read from, if it exists and is up to date. */
+    public static final String DEFAULT_FILE = "equations.bin";
+
+    private static final int MAGIC = 0x4E504431; // "NPD1"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+
+    private final MappedByteBuffer entries;
+    private final int size;
+    private final int length;
+    private final int entryBytes;
+    private final long checksum;
+
+    private PackedDictionary(MappedByteBuffer entries, int size, int length, int entryBytes, long checksum) {
+        this.entries = entries;
+        this.size = size;
+        this.length = length;
+        this.entryBytes = entryBytes;
+        this.checksum = checksum;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path input = Paths.get(args.length > 0 ? args[0] : EquationDictionary.DEFAULT_FILE);
+        Path output = Paths.get(args.length > 1 ? args[1] : DEFAULT_FILE);
+        EquationDictionary dictionary = EquationDictionary.load(input);
+        write(dictionary, output);
+        System.out.printf("Packed %d equations from %s (%d bytes) into %s (%d bytes)%n", dictionary.size(), input,
+                dictionary.getFileSize(), output, HEADER_SIZE + (long) dictionary.size() * entryBytes(
+                        dictionary.getEquationLength()));
+    }
+
+    private static int entryBytes(int length) {
+        return length <= 8 ? Integer.BYTES : Long.BYTES;
+    }
+
+    /**
+     * Writes a dictionary as a packed file.
+     *
+     * @param dictionary The dictionary, whose equations must all have the same length, only symbols of the
+     *                   alphabet and at most Symbols.MAX_PACKED_LENGTH of them.
+     * @param file       The file to write.
+     * @throws IOException If writing fails.
+     */
+    public static void write(EquationDictionary dictionary, Path file) throws IOException {
+        int n = dictionary.size();
+        int length = dictionary.getEquationLength();
+        int entryBytes = entryBytes(length);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + n * entryBytes).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(length).putInt(entryBytes).putInt(0)
+                .putLong(dictionary.getChecksum());
+        for (int i = 0; i < n; i++) {
+            String equation = dictionary.get(i);
+            long packed = Symbols.pack(equation);
+            if (equation.length() != length || packed == -1) {
+                throw new IllegalArgumentException("Equations must all have the same length of at most "
+                        + Symbols.MAX_PACKED_LENGTH + " and only symbols of " + Symbols.ALPHABET + ": " + equation);
+            }
+            if (entryBytes == Integer.BYTES) {
+                buffer.putInt((int) packed);
+            } else {
+                buffer.putLong(packed);
+            }
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Maps a packed file read-only and checks its header and checksum.
+     *
+     * @param file The packed file.
+     * @return The mapped dictionary.
+     * @throws IOException If the file cannot be read, is not a packed dictionary or is corrupt.
+     */
+    public static PackedDictionary open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    break;
+                }
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException(file + " is not a packed dictionary file");
+            }
+            int n = header.getInt();
+            int length = header.getInt();
+            int entryBytes = header.getInt();
+            header.getInt(); // Reserved
+            long checksum = header.getLong();
+            if (n < 0 || length < 0 || length > Symbols.MAX_PACKED_LENGTH || entryBytes != entryBytes(length)) {
+                throw new IOException(file + " has an invalid header");
+            }
+            long entriesSize = (long) n * entryBytes;
+            if (entriesSize > Integer.MAX_VALUE) {
+                throw new IOException(file + " has too many equations to be mapped");
+            }
+            if (channel.size() < HEADER_SIZE + entriesSize) {
+                throw new IOException(file + " is truncated");
+            }
+            MappedByteBuffer entries = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, entriesSize);
+            entries.order(ByteOrder.LITTLE_ENDIAN);
+            // The mapping stays valid after the channel is closed
+            PackedDictionary dictionary = new PackedDictionary(entries, n, length, entryBytes, checksum);
+            // Throws an IOException on an invalid symbol, so a corrupt file is never decoded
+            if (dictionary.computeChecksum(file) != checksum) {
+                throw new IOException(file + " is corrupt: its checksum does not match its equations");
+            }
+            return dictionary;
+        }
+    }
+
+    /**
+     * Computes the checksum of the entries the way EquationDictionary does for its equations, decoding them into
+     * a single array, and checks that every entry only has symbols of the alphabet, like GameSnapshot.readPacked.
+     *
+     * @throws IOException If an entry has a symbol outside the alphabet or bits beyond its length.
+     */
+    private long computeChecksum(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        char[] chars = new char[length];
+        long unused = -1L << (length << 2); // The bits beyond the last symbol
+        for (int i = 0; i < size; i++) {
+            long packed = getPacked(i);
+            if ((packed & unused) != 0) {
+                throw new IOException(file + " is corrupt: equation " + i + " is longer than " + length);
+            }
+            for (int j = 0; j < length; j++) {
+                if (((packed >>> (j << 2)) & 0xF) >= Symbols.COUNT) {
+                    throw new IOException(file + " is corrupt: equation " + i + " has an invalid symbol");
+                }
+            }
+            Symbols.unpack(packed, chars, length);
+            for (char c : chars) {
+                crc.update(c); // The symbols are ASCII, one UTF-8 byte each
+            }
+            crc.update('\n');
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Returns an equation packed by Symbols.pack.
+     *
+     * @param index The index of the equation, between 0 and size() - 1.
+     * @return The packed equation.
+     */
+    public long getPacked(int index) {
+        if (entryBytes == Integer.BYTES) {
+            return entries.getInt(index * Integer.BYTES) & 0xFFFFFFFFL;
+        }
+        return entries.getLong(index * Long.BYTES);
+    }
+
+    /**
+     * Decodes an equation.
+     *
+     * @param index The index of the equation, between 0 and size() - 1.
+     * @return The equation.
+     */
+    public String get(int index) {
+        return Symbols.unpack(getPacked(index), length);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The number of symbols of every equation, 0 if there is none.
+     */
+    public int getEquationLength() {
+        return length;
+    }
+
+    /**
+     * @return The checksum of the dictionary, as written in the header and checked when the file was opened.
+     */
+    public long getChecksum() {
+        return checksum;
+    }
+}
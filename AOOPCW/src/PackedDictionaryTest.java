@@ -0,0 +1,118 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.function.IntUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PackedDictionaryTest {
+    private static final int HEADER_SIZE = 32;
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests that the text dictionary written as a packed file and mapped back gives the same equations.
+     * -----------------------------------------------------------------------------------------------------------------
+     * @ ensures packed.size() == text.size();
+     * @ ensures packed.getChecksum() == text.getChecksum();
+     *
+     * @post Every equation is found at the same index by get, getChars and indexOf, and the file takes 4 bytes
+     *       per equation of 7 symbols.
+     */
+    @Test
+    public void testRoundTrip() throws IOException {
+        EquationDictionary text = EquationDictionary.load(Paths.get(EquationDictionary.DEFAULT_FILE));
+        EquationDictionary packed = writeAndLoad(text);
+        assertTrue(packed.isPacked());
+        assertEquals(HEADER_SIZE + 4L * text.size(), Files.size(directory.resolve(PackedDictionary.DEFAULT_FILE)));
+        assertRoundTrip(text, packed);
+        assertEquals(-1, packed.indexOf("9+9+9=27"));
+        assertEquals(-1, packed.indexOf("1+2+3=7"));
+    }
+
+    /**
+     * Tests the entries of 8 bytes used for equations of more than 8 symbols, up to Symbols.MAX_PACKED_LENGTH.
+     * -----------------------------------------------------------------------------------------------------------------
+     * @ ensures packed.getEquationLength() == 15;
+     *
+     * @post The equations come back whole, including the symbols packed in the upper half of each entry.
+     */
+    @Test
+    public void testLongEquations() throws IOException {
+        EquationDictionary text = EquationDictionary.of("123456+1=123457", "12*12=144+0*100", "8/2-1=3+0*99999",
+                "1+2+3+4+5=5+5+5");
+        EquationDictionary packed = writeAndLoad(text);
+        assertEquals(15, packed.getEquationLength());
+        assertEquals(HEADER_SIZE + 8L * text.size(), Files.size(directory.resolve(PackedDictionary.DEFAULT_FILE)));
+        assertRoundTrip(text, packed);
+    }
+
+    /**
+     * Tests that a file whose equations no longer match the checksum in its header is rejected.
+     *
+     * @post Opening it throws an IOException.
+     */
+    @Test
+    public void testChecksumMismatch() throws IOException {
+        Path file = directory.resolve(PackedDictionary.DEFAULT_FILE);
+        PackedDictionary.write(EquationDictionary.of("1+2+3=6", "3+2+2=7"), file);
+        corruptFirstSymbol(file, symbol -> (symbol + 1) % Symbols.COUNT); // Another symbol of the alphabet
+        IOException e = assertThrows(IOException.class, () -> PackedDictionary.open(file));
+        assertTrue(e.getMessage().contains("checksum"));
+    }
+
+    /**
+     * Tests that a file with a symbol outside the alphabet is rejected before any equation is decoded.
+     *
+     * @post Opening it throws an IOException.
+     */
+    @Test
+    public void testInvalidSymbol() throws IOException {
+        Path file = directory.resolve(PackedDictionary.DEFAULT_FILE);
+        PackedDictionary.write(EquationDictionary.of("1+2+3=6", "3+2+2=7"), file);
+        corruptFirstSymbol(file, symbol -> 0xF); // The only 4-bit value that is not a symbol
+        IOException e = assertThrows(IOException.class, () -> PackedDictionary.open(file));
+        assertTrue(e.getMessage().contains("invalid symbol"));
+    }
+
+    private EquationDictionary writeAndLoad(EquationDictionary dictionary) throws IOException {
+        Path file = directory.resolve(PackedDictionary.DEFAULT_FILE);
+        PackedDictionary.write(dictionary, file);
+        return EquationDictionary.loadPacked(file);
+    }
+
+    private static void assertRoundTrip(EquationDictionary text, EquationDictionary packed) {
+        assertEquals(text.size(), packed.size());
+        assertEquals(text.getChecksum(), packed.getChecksum());
+        assertEquals(text.getEquationLength(), packed.getEquationLength());
+        char[] expected = new char[Symbols.MAX_PACKED_LENGTH];
+        char[] actual = new char[Symbols.MAX_PACKED_LENGTH];
+        for (int i = 0; i < text.size(); i++) {
+            String equation = text.get(i);
+            assertEquals(equation, packed.get(i));
+            assertEquals(equation.length(), packed.getLength(i));
+            assertEquals(text.getChars(i, expected), packed.getChars(i, actual));
+            assertArrayEquals(expected, actual);
+            assertEquals(i, packed.indexOf(equation));
+        }
+    }
+
+    private static void corruptFirstSymbol(Path file, IntUnaryOperator change) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer entries = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE, 1);
+            entries.order(ByteOrder.LITTLE_ENDIAN);
+            int b = entries.get(0);
+            entries.put(0, (byte) ((b & 0xF0) | change.applyAsInt(b & 0xF)));
+            entries.force();
+        }
+    }
+}
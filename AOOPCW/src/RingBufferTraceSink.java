@@ -0,0 +1,217 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The RingBufferTraceSink class writes trace records to a file without slowing down the games that record them.
+ * Recording a record only claims a slot of a preallocated ring buffer with one compare-and-set and stores the
+ * arguments in it: no allocation, no formatting, no lock and no I/O on the game's thread.
+ * A writer thread formats the records in order and writes them in batches, flushing once per batch.
+ * If the writer falls behind by a whole buffer, new records are dropped and counted rather than waiting.
+ * Each line holds the time in milliseconds since the epoch, the kind of record and its arguments.
+ * Close the sink to write the remaining records and close the file.
+ */
+public final class RingBufferTraceSink implements TraceSink, AutoCloseable {
+    private static final byte GAME_STARTED = 0;
+    private static final byte GUESS_SCORED = 1;
+    private static final byte GUESS_REJECTED = 2;
+    private static final byte GAME_WON = 3;
+    private static final byte GAME_LOST = 4;
+
+    private final TraceLevel level;
+    private final int mask;
+    // The slots, one entry per field; a slot is readable when published holds its sequence number
+    private final AtomicLongArray published;
+    private final long[] times;
+    private final byte[] kinds;
+    private final String[] texts;
+    private final int[] firstValues;
+    private final int[] secondValues;
+
+    private final AtomicLong claimed = new AtomicLong(); // Next sequence number to claim
+    private volatile long consumed; // Next sequence number the writer reads
+    private final LongAdder dropped = new LongAdder();
+    private final Writer writer;
+    private final Thread writerThread;
+    private volatile boolean closing;
+
+    /**
+     * Creates a sink appending to a file, and starts its writer thread.
+     *
+     * @param file     The file to append to. It is created if needed.
+     * @param level    The most detailed level to keep.
+     * @param capacity The number of records the buffer holds, rounded up to a power of two.
+     * @throws IOException If the file cannot be opened.
+     */
+    public RingBufferTraceSink(Path file, TraceLevel level, int capacity) throws IOException {
+        this(Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND), level, capacity);
+    }
+
+    /**
+     * Creates a sink writing to a writer, and starts its writer thread. Only that thread uses the writer.
+     *
+     * @param writer   Where the formatted records go. It is closed with the sink.
+     * @param level    The most detailed level to keep.
+     * @param capacity The number of records the buffer holds, rounded up to a power of two.
+     */
+    public RingBufferTraceSink(Writer writer, TraceLevel level, int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.level = level;
+        this.mask = size - 1;
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1);
+        }
+        this.times = new long[size];
+        this.kinds = new byte[size];
+        this.texts = new String[size];
+        this.firstValues = new int[size];
+        this.secondValues = new int[size];
+        this.writer = writer instanceof BufferedWriter ? writer : new BufferedWriter(writer);
+        this.writerThread = new Thread(this::writeLoop, "numberle-trace-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @Override
+    public boolean isEnabled(TraceLevel level) {
+        return this.level.includes(level);
+    }
+
+    @Override
+    public void gameStarted(String target) {
+        if (isEnabled(TraceLevel.INFO)) {
+            record(GAME_STARTED, target, 0, 0);
+        }
+    }
+
+    @Override
+    public void guessScored(String guess, int feedback, int remainingAttempts) {
+        if (isEnabled(TraceLevel.DEBUG)) {
+            record(GUESS_SCORED, guess, feedback, remainingAttempts);
+        }
+    }
+
+    @Override
+    public void guessRejected(String guess, int reason) {
+        if (isEnabled(TraceLevel.DEBUG)) {
+            record(GUESS_REJECTED, guess, reason, 0);
+        }
+    }
+
+    @Override
+    public void gameEnded(boolean won, String target, int remainingAttempts) {
+        if (isEnabled(TraceLevel.INFO)) {
+            record(won ? GAME_WON : GAME_LOST, target, remainingAttempts, 0);
+        }
+    }
+
+    /**
+     * @return The number of records dropped because the buffer was full.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    private void record(byte kind, String text, int first, int second) {
+        if (closing) {
+            return;
+        }
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed > mask) {
+                dropped.increment(); // Full: the writer is a whole buffer behind
+                return;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+        int slot = (int) sequence & mask;
+        times[slot] = System.currentTimeMillis();
+        kinds[slot] = kind;
+        texts[slot] = text;
+        firstValues[slot] = first;
+        secondValues[slot] = second;
+        published.lazySet(slot, sequence); // Release the fields above to the writer
+    }
+
+    private void writeLoop() {
+        StringBuilder line = new StringBuilder(64);
+        long next = 0;
+        while (true) {
+            int slot = (int) next & mask;
+            if (published.get(slot) == next) {
+                line.setLength(0);
+                format(line, slot);
+                texts[slot] = null; // Do not keep the guess alive
+                consumed = ++next;
+                try {
+                    writer.append(line);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+                continue;
+            }
+            // Batch done: one flush for everything written since the last one
+            try {
+                writer.flush();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            if (closing && claimed.get() == next) {
+                break;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    private void format(StringBuilder line, int slot) {
+        line.append(times[slot]).append(' ');
+        switch (kinds[slot]) {
+            case GAME_STARTED:
+                line.append("START ").append(texts[slot]);
+                break;
+            case GUESS_SCORED:
+                line.append("GUESS ").append(texts[slot]).append(' ');
+                String guess = texts[slot];
+                for (int i = 0; i < guess.length(); i++) {
+                    // G for green, O for orange and - for gray, like the coloured tiles
+                    line.append("GO-".charAt(Feedback.colorAt(firstValues[slot], i)));
+                }
+                line.append(" left=").append(secondValues[slot]);
+                break;
+            case GUESS_REJECTED:
+                line.append("REJECT ").append(texts[slot]).append(" reason=").append(firstValues[slot]);
+                break;
+            case GAME_WON:
+            case GAME_LOST:
+                line.append(kinds[slot] == GAME_WON ? "WON " : "LOST ").append(texts[slot])
+                        .append(" left=").append(firstValues[slot]);
+                break;
+        }
+        line.append('\n');
+    }
+
+    /**
+     * Stops accepting records, waits for the writer to write the ones recorded so far, and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        closing = true;
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer.close();
+    }
+}
@@ -0,0 +1,206 @@
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * The Symbols class defines the alphabet of Numberle equations and maps each symbol to a small index.
+ * The indices (0-9 for the digits, then '+', '-', '*', '/' and '=') fit in 4 bits, which is what the
+ * packed feedback, keyboard and dictionary encodings are built on.
+ */
+public final class Symbols {
+    /** The symbols an equation is made of, in index order. */
+    public static final String ALPHABET = "0123456789+-*/=";
+    /** The number of symbols in the alphabet. */
+    public static final int COUNT = ALPHABET.length();
+    /** The mask of the whole alphabet, bit i standing for the symbol of index i. */
+    public static final int ALL = (1 << COUNT) - 1;
+
+    private static final byte[] INDEX = new byte[128];
+
+    static {
+        Arrays.fill(INDEX, (byte) -1);
+        for (int i = 0; i < COUNT; i++) {
+            INDEX[ALPHABET.charAt(i)] = (byte) i;
+        }
+    }
+
+    private Symbols() {
+    }
+
+    /**
+     * Returns the index of a symbol in the alphabet.
+     *
+     * @param c The symbol.
+     * @return The index of the symbol, or -1 if it is not part of the alphabet.
+     */
+    public static int indexOf(char c) {
+        return c < 128 ? INDEX[c] : -1;
+    }
+
+    /**
+     * Returns the symbol at the given index of the alphabet.
+     *
+     * @param index The index, between 0 and COUNT - 1.
+     * @return The symbol.
+     */
+    public static char charAt(int index) {
+        return ALPHABET.charAt(index);
+    }
+
+    /** The longest equation pack can encode. */
+    public static final int MAX_PACKED_LENGTH = 15;
+
+    /**
+     * Packs an equation into a long, 4 bits per symbol with the first symbol in the lowest bits.
+     * Together with the length, the packed value identifies the equation.
+     *
+     * @param equation The equation.
+     * @return The packed equation, or -1 if it is longer than MAX_PACKED_LENGTH or has a symbol outside the alphabet.
+     */
+    public static long pack(CharSequence equation) {
+        int length = equation.length();
+        if (length > MAX_PACKED_LENGTH) {
+            return -1;
+        }
+        long packed = 0;
+        for (int i = 0; i < length; i++) {
+            int index = indexOf(equation.charAt(i));
+            if (index < 0) {
+                return -1;
+            }
+            packed |= (long) index << (i << 2);
+        }
+        return packed;
+    }
+
+    /**
+     * Unpacks an equation packed by pack.
+     *
+     * @param packed The packed equation.
+     * @param length The length of the equation.
+     * @return The equation.
+     */
+    public static String unpack(long packed, int length) {
+        char[] chars = new char[length];
+        unpack(packed, chars, length);
+        return new String(chars);
+    }
+
+    /**
+     * Unpacks an equation packed by pack into an array, without creating a String.
+     *
+     * @param packed The packed equation.
+     * @param chars  The array to write the equation to, from index 0.
+     * @param length The length of the equation.
+     */
+    public static void unpack(long packed, char[] chars, int length) {
+        for (int i = 0; i < length; i++) {
+            chars[i] = ALPHABET.charAt((int) (packed >>> (i << 2)) & 0xF);
+        }
+    }
+
+    /**
+     * Returns the symbols of a mask as an immutable list, in alphabet order.
+     * The list reads the mask on each call and holds no Character objects of its own, the boxed
+     * symbols are the cached ones of Character.valueOf.
+     *
+     * @param mask The symbols, bit i for the symbol of index i.
+     * @return The list view of the mask.
+     */
+    public static List<Character> listOf(int mask) {
+        return new MaskList(mask & ALL);
+    }
+
+    /**
+     * Returns the symbols of a mask as an immutable set, iterated in alphabet order.
+     *
+     * @param mask The symbols, bit i for the symbol of index i.
+     * @return The set view of the mask.
+     */
+    public static Set<Character> setOf(int mask) {
+        return new MaskSet(mask & ALL);
+    }
+
+    private static Iterator<Character> iterator(int mask) {
+        return new Iterator<>() {
+            private int bits = mask;
+
+            @Override
+            public boolean hasNext() {
+                return bits != 0;
+            }
+
+            @Override
+            public Character next() {
+                if (bits == 0) {
+                    throw new NoSuchElementException();
+                }
+                int index = Integer.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                return ALPHABET.charAt(index);
+            }
+        };
+    }
+
+    private static final class MaskList extends AbstractList<Character> implements RandomAccess {
+        private final int mask;
+
+        MaskList(int mask) {
+            this.mask = mask;
+        }
+
+        @Override
+        public Character get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            int bits = mask;
+            for (int i = 0; i < index; i++) {
+                bits &= bits - 1; // Drop the lowest symbols before the one asked for
+            }
+            return ALPHABET.charAt(Integer.numberOfTrailingZeros(bits));
+        }
+
+        @Override
+        public int size() {
+            return Integer.bitCount(mask);
+        }
+
+        @Override
+        public Iterator<Character> iterator() {
+            return Symbols.iterator(mask);
+        }
+    }
+
+    private static final class MaskSet extends AbstractSet<Character> {
+        private final int mask;
+
+        MaskSet(int mask) {
+            this.mask = mask;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Character)) {
+                return false;
+            }
+            int index = indexOf((Character) o);
+            return index >= 0 && (mask & (1 << index)) != 0;
+        }
+
+        @Override
+        public int size() {
+            return Integer.bitCount(mask);
+        }
+
+        @Override
+        public Iterator<Character> iterator() {
+            return Symbols.iterator(mask);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * The ToastOverlay class shows short messages over a frame, one at a time, as the glass pane of the frame.
+ * A message is painted in a rounded box at the center of the frame for a fixed time, then the next one in the
+ * queue is shown. Nothing is allocated per message beyond its entry in the queue, and the overlay never takes
+ * the input: it has no listeners, so mouse and key events go to the components under it.
+ * Messages with the same key are coalesced: a new one replaces the one shown (restarting its time) or the one
+ * waiting in the queue, so a burst of "Try Again" messages shows only the latest.
+ * All methods must be called on the event dispatch thread.
+ */
+public class ToastOverlay extends JComponent {
+    /** The time a message is shown, in milliseconds. */
+    public static final int DURATION = 2000;
+
+    private static final int MAX_QUEUED = 4; // Beyond this, the oldest waiting message is dropped
+    private static final int MIN_WIDTH = 300;
+    private static final int HEIGHT = 60;
+    private static final int PADDING = 24;
+    private static final int RADIUS = 30;
+    private static final Font FONT = new Font("Verdana", Font.BOLD, 14);
+    private static final Color BOX_COLOR = Color.WHITE;
+    private static final Color BORDER_COLOR = Color.decode("#DCE1ED");
+    private static final Color TEXT_COLOR = UIManager.getColor("Label.foreground");
+
+    private final ArrayDeque<String[]> queue = new ArrayDeque<>(); // {key, message}
+    private final Timer timer = new Timer(DURATION, e -> showNext());
+    private String shownKey;
+    private String shownMessage;
+    private final Rectangle shownBounds = new Rectangle();
+
+    /**
+     * Creates an overlay and installs it as the glass pane of a frame.
+     *
+     * @param frame The frame to show the messages over.
+     */
+    public ToastOverlay(JFrame frame) {
+        setOpaque(false);
+        timer.setRepeats(false);
+        frame.setGlassPane(this);
+    }
+
+    /**
+     * Shows a message, coalesced with the messages that have the same text.
+     *
+     * @param message The message.
+     */
+    public void show(String message) {
+        show(message, message);
+    }
+
+    /**
+     * Shows a message as soon as the messages before it have been shown, or at once if none is shown.
+     *
+     * @param message The message.
+     * @param key     The key of the message: it replaces the shown or waiting message with the same key.
+     */
+    public void show(String message, String key) {
+        if (key.equals(shownKey)) {
+            setShown(key, message);
+            timer.restart();
+            return;
+        }
+        for (Iterator<String[]> waiting = queue.iterator(); waiting.hasNext(); ) {
+            if (waiting.next()[0].equals(key)) {
+                waiting.remove();
+            }
+        }
+        queue.addLast(new String[] {key, message});
+        if (queue.size() > MAX_QUEUED) {
+            queue.removeFirst();
+        }
+        if (shownKey == null) {
+            showNext();
+        }
+    }
+
+    private void showNext() {
+        String[] next = queue.pollFirst();
+        if (next == null) {
+            setShown(null, null);
+            return;
+        }
+        setShown(next[0], next[1]);
+        timer.restart();
+    }
+
+    /**
+     * Changes the message shown, repainting only the boxes of the old and new messages.
+     */
+    private void setShown(String key, String message) {
+        repaint(shownBounds);
+        shownKey = key;
+        shownMessage = message;
+        setVisible(message != null);
+        if (message != null) {
+            FontMetrics fm = getFontMetrics(FONT);
+            int width = Math.min(Math.max(MIN_WIDTH, fm.stringWidth(message) + 2 * PADDING),
+                    Math.max(MIN_WIDTH, getWidth()));
+            shownBounds.setBounds((getWidth() - width) / 2, (getHeight() - HEIGHT) / 2, width, HEIGHT);
+            repaint(shownBounds);
+        }
+    }
+
+    /**
+     * Paints the shown message, if any.
+     *
+     * @param g The Graphics context to paint on.
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        if (shownMessage == null) {
+            return;
+        }
+        Graphics2D g2 = (Graphics2D) g.create();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        Rectangle box = shownBounds;
+        g2.setColor(BOX_COLOR);
+        g2.fillRoundRect(box.x, box.y, box.width - 1, box.height - 1, RADIUS, RADIUS);
+        g2.setColor(BORDER_COLOR);
+        g2.drawRoundRect(box.x, box.y, box.width - 1, box.height - 1, RADIUS, RADIUS);
+        g2.setFont(FONT);
+        g2.setColor(TEXT_COLOR);
+        FontMetrics fm = g2.getFontMetrics();
+        int x = box.x + (box.width - fm.stringWidth(shownMessage)) / 2;
+        int y = box.y + (box.height + fm.getAscent()) / 2 - fm.getDescent() / 2;
+        g2.drawString(shownMessage, x, y);
+        g2.dispose();
+    }
+}
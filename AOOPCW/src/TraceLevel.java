@@ -0,0 +1,19 @@
+/**
+ * The TraceLevel enum is the detail of the records a TraceSink accepts, from none to every guess.
+ */
+public enum TraceLevel {
+    /** No records. */
+    OFF,
+    /** One record when a game starts, with its target, and one when it ends. */
+    INFO,
+    /** Also one record per guess, with its feedback or the reason it was rejected. */
+    DEBUG;
+
+    /**
+     * @param level The level of a record.
+     * @return Whether a sink at this level accepts records of the given level.
+     */
+    public boolean includes(TraceLevel level) {
+        return level != OFF && level.ordinal() <= ordinal();
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * The TraceSink interface receives the trace records of Numberle models: games starting and ending, and guesses.
+ * Records are passed as the strings and packed feedback the model already has, never as formatted text,
+ * so a model asks isEnabled first and then tracing costs no allocation, and nothing at all when disabled.
+ * Formatting is the job of the sink: ConsoleTraceSink prints at once, RingBufferTraceSink formats on its own
+ * thread. Sinks may be shared by the models of many threads, so implementations must be thread safe.
+ */
+public interface TraceSink {
+    /** The default sink, which accepts nothing. */
+    TraceSink NOOP = new TraceSink() {
+        @Override
+        public boolean isEnabled(TraceLevel level) {
+            return false;
+        }
+
+        @Override
+        public void gameStarted(String target) {
+        }
+
+        @Override
+        public void guessScored(String guess, int feedback, int remainingAttempts) {
+        }
+
+        @Override
+        public void guessRejected(String guess, int reason) {
+        }
+
+        @Override
+        public void gameEnded(boolean won, String target, int remainingAttempts) {
+        }
+    };
+
+    /**
+     * @param level The level of a record.
+     * @return Whether records of this level are kept. Callers check it before building the arguments of a record.
+     */
+    boolean isEnabled(TraceLevel level);
+
+    /**
+     * Records the start of a game, at level INFO. This leaks the answer, so keep such traces private.
+     *
+     * @param target The target equation.
+     */
+    void gameStarted(String target);
+
+    /**
+     * Records a guess that was scored, at level DEBUG.
+     *
+     * @param guess             The guess.
+     * @param feedback          The packed feedback, see Feedback.
+     * @param remainingAttempts The attempts left after the guess.
+     */
+    void guessScored(String guess, int feedback, int remainingAttempts);
+
+    /**
+     * Records a guess that was rejected, at level DEBUG.
+     *
+     * @param guess  The guess, which may be null.
+     * @param reason The code processInput or evaluateExpression returned for it.
+     */
+    void guessRejected(String guess, int reason);
+
+    /**
+     * Records the end of a game, at level INFO.
+     *
+     * @param won               Whether the target was found.
+     * @param target            The target equation.
+     * @param remainingAttempts The attempts left.
+     */
+    void gameEnded(boolean won, String target, int remainingAttempts);
+}
@@ -0,0 +1,246 @@
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The ValidationCache class remembers the result codes of ExpressionEvaluator for the guesses seen most recently,
+ * so that popular guesses, such as common openers, are validated once rather than by every session.
+ * A guess is keyed by a primitive long: its symbols packed 4 bits each by Symbols.pack, with the length in the top
+ * 4 bits, so no String is kept or boxed. Entries live in sets of WAYS slots; a key can only be in the set its hash
+ * selects, and a full set evicts with the CLOCK algorithm: a hand goes round the slots, giving a second chance to the
+ * slots hit since it last passed them, and replaces the first slot that was not.
+ * The sets are split among striped segments, each with its own lock, so threads rarely contend. Hits, misses and
+ * evictions are counted in LongAdders. Validation results never change, so a cache can be shared by every model.
+ */
+public final class ValidationCache {
+    /** The capacity used by the session manager when none is given. */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private static final int WAYS = 8;
+    private static final int SEGMENTS = 64;
+    private static final long EMPTY = 0; // The key of the empty guess, which is never cached
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final int setMask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param capacity The number of guesses kept, rounded up to a power of two of at least WAYS x 64.
+     */
+    public ValidationCache(int capacity) {
+        int sets = Math.max(1, Integer.highestOneBit(Math.max(1, capacity - 1)) * 2 / (WAYS * SEGMENTS));
+        this.setMask = sets - 1;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(sets);
+        }
+    }
+
+    /**
+     * Returns the key of a guess.
+     *
+     * @param expression The guess.
+     * @return The key, or -1 if the guess is empty, too long to pack or has a symbol outside the alphabet.
+     */
+    static long keyOf(CharSequence expression) {
+        int length = expression.length();
+        long packed = length == 0 ? -1 : Symbols.pack(expression);
+        return packed == -1 ? -1 : packed | (long) length << 60;
+    }
+
+    /**
+     * Returns the segment of a key, selected by the top bits of its hash; the next bits select the set in it.
+     *
+     * @param key A key returned by keyOf, not -1.
+     * @return The index of the segment.
+     */
+    static int segmentOf(long key) {
+        return (int) (hash(key) >>> 58);
+    }
+
+    private static long hash(long key) {
+        return key * 0x9E3779B97F4A7C15L; // Spreads the packed symbols over the high bits
+    }
+
+    /**
+     * Validates a guess like ExpressionEvaluator.evaluate, from the cache if it holds it.
+     * Guesses that cannot be keyed are evaluated without being cached.
+     *
+     * @param expression The guess.
+     * @return The result code of ExpressionEvaluator.evaluate.
+     */
+    public int evaluate(CharSequence expression) {
+        long key = keyOf(expression);
+        if (key == -1) {
+            misses.increment();
+            return ExpressionEvaluator.evaluate(expression);
+        }
+        Segment segment = segments[segmentOf(key)];
+        int set = (int) (hash(key) >>> 26) & setMask;
+        int code = segment.get(key, set);
+        if (code >= 0) {
+            hits.increment();
+            return code;
+        }
+        misses.increment();
+        code = ExpressionEvaluator.evaluate(expression);
+        if (segment.put(key, set, code)) {
+            evictions.increment();
+        }
+        return code;
+    }
+
+    /**
+     * @return The number of guesses the cache can hold.
+     */
+    public int getCapacity() {
+        return (setMask + 1) * WAYS * SEGMENTS;
+    }
+
+    /**
+     * @return The number of guesses held. Not atomic while guesses are evaluated.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return The share of the guesses found in the cache, between 0 and 1, 0 if none was evaluated.
+     */
+    public double getHitRate() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    /**
+     * Returns the counters and sizes, in that order. The map is a plain copy, which JMX shows as a table.
+     *
+     * @return The statistics of the cache.
+     */
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("hits", getHits());
+        stats.put("misses", getMisses());
+        stats.put("hitRatePercent", Math.round(getHitRate() * 100));
+        stats.put("evictions", getEvictions());
+        stats.put("size", (long) size());
+        stats.put("capacity", (long) getCapacity());
+        return stats;
+    }
+
+    /**
+     * Forgets every guess and clears the counters.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hits=%d misses=%d hitRate=%.1f%% evictions=%d size=%d/%d", getHits(), getMisses(),
+                getHitRate() * 100, getEvictions(), size(), getCapacity());
+    }
+
+    /**
+     * A share of the sets, guarded by its own lock. Slot s of set t is at index t x WAYS + s of the arrays.
+     */
+    private static final class Segment {
+        private final long[] keys;
+        private final byte[] codes;
+        private final boolean[] referenced; // Hit since the hand last passed the slot
+        private final byte[] hands; // The next slot the hand of each set looks at
+        private int size;
+
+        Segment(int sets) {
+            keys = new long[sets * WAYS];
+            codes = new byte[sets * WAYS];
+            referenced = new boolean[sets * WAYS];
+            hands = new byte[sets];
+        }
+
+        /**
+         * @return The code of the key, or -1 if it is not held.
+         */
+        synchronized int get(long key, int set) {
+            int base = set * WAYS;
+            for (int slot = base; slot < base + WAYS; slot++) {
+                if (keys[slot] == key) {
+                    referenced[slot] = true;
+                    return codes[slot];
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Adds a key, unless another thread added it meanwhile.
+         *
+         * @return Whether another key was evicted for it.
+         */
+        synchronized boolean put(long key, int set, int code) {
+            int base = set * WAYS;
+            int free = -1;
+            for (int slot = base; slot < base + WAYS; slot++) {
+                if (keys[slot] == key) {
+                    return false;
+                }
+                if (keys[slot] == EMPTY && free < 0) {
+                    free = slot;
+                }
+            }
+            boolean evicted = free < 0;
+            if (evicted) {
+                int hand = hands[set];
+                while (referenced[base + hand]) {
+                    referenced[base + hand] = false;
+                    hand = (hand + 1) % WAYS;
+                }
+                free = base + hand;
+                hands[set] = (byte) ((hand + 1) % WAYS);
+            } else {
+                size++;
+            }
+            keys[free] = key;
+            codes[free] = (byte) code;
+            referenced[free] = false;
+            return evicted;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized void clear() {
+            Arrays.fill(keys, EMPTY);
+            Arrays.fill(referenced, false);
+            Arrays.fill(hands, (byte) 0);
+            size = 0;
+        }
+    }
+}
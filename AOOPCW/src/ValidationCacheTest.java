@@ -0,0 +1,117 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ValidationCacheTest {
+    private static final int WAYS = 8;
+
+    private ValidationCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        cache = new ValidationCache(1); // One set of WAYS slots per segment
+    }
+
+    /**
+     * Tests the CLOCK eviction of a full set: guesses hit since they were added get a second chance, and the
+     * others are evicted in the order the hand reaches them.
+     * -----------------------------------------------------------------------------------------------------------------
+     * @ ensures cache.size() == WAYS;
+     * @ ensures cache.getEvictions() == 3;
+     *
+     * @post The two guesses hit before the set overflowed are still held, the first three others are not.
+     */
+    @Test
+    public void testClockEviction() {
+        List<String> guesses = sameSet(WAYS + 3);
+        for (String guess : guesses.subList(0, WAYS)) {
+            assertEquals(ExpressionEvaluator.evaluate(guess), cache.evaluate(guess));
+        }
+        assertEquals(WAYS, cache.size());
+        assertEquals(0, cache.getEvictions());
+        cache.evaluate(guesses.get(0)); // Referenced
+        cache.evaluate(guesses.get(2)); // Referenced
+        assertEquals(2, cache.getHits());
+
+        for (String guess : guesses.subList(WAYS, WAYS + 3)) {
+            cache.evaluate(guess);
+        }
+        assertEquals(WAYS, cache.size());
+        assertEquals(3, cache.getEvictions());
+        assertHit(guesses.get(0), true);
+        assertHit(guesses.get(2), true);
+        for (String guess : guesses.subList(WAYS, WAYS + 3)) {
+            assertHit(guess, true);
+        }
+        assertHit(guesses.get(1), false);
+        assertHit(guesses.get(3), false);
+        assertHit(guesses.get(4), false);
+    }
+
+    /**
+     * Tests the keys of guesses: every length has its own keys, and guesses that cannot be packed have none.
+     *
+     * @post Uncacheable guesses are evaluated as misses without being held.
+     */
+    @Test
+    public void testKeys() {
+        assertNotEquals(ValidationCache.keyOf("0"), ValidationCache.keyOf("00")); // Both pack to 0
+        assertNotEquals(0L, ValidationCache.keyOf("0")); // The empty slot
+        assertEquals(-1L, ValidationCache.keyOf(""));
+        assertEquals(-1L, ValidationCache.keyOf("1+2+3=6 "));
+        assertEquals(-1L, ValidationCache.keyOf("1+2+3+4+5+6=21+0"));
+
+        for (String guess : new String[]{"", "1+2+3=6 ", "1+2+3+4+5+6=21+0"}) {
+            assertEquals(ExpressionEvaluator.evaluate(guess), cache.evaluate(guess));
+            assertEquals(ExpressionEvaluator.evaluate(guess), cache.evaluate(guess));
+        }
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getHits());
+        assertEquals(6, cache.getMisses());
+    }
+
+    /**
+     * Tests the statistics, in the order JMX shows them.
+     *
+     * @post stats() has the counters, the hit rate in percent, the size and the capacity.
+     */
+    @Test
+    public void testStats() {
+        cache.evaluate("1+2+3=6");
+        cache.evaluate("1+2+3=6");
+        cache.evaluate("1+2+3=6");
+        cache.evaluate("3+2+2=7");
+        Map<String, Long> stats = cache.stats();
+        assertEquals(List.of("hits", "misses", "hitRatePercent", "evictions", "size", "capacity"),
+                List.copyOf(stats.keySet()));
+        assertEquals(Map.of("hits", 2L, "misses", 2L, "hitRatePercent", 50L, "evictions", 0L, "size", 2L,
+                "capacity", (long) WAYS * 64), stats);
+
+        cache.clear();
+        assertEquals(0, (long) cache.stats().get("hits"));
+        assertEquals(0, (long) cache.stats().get("size"));
+    }
+
+    /**
+     * Returns equations whose keys fall in the same segment, and so in the same set of a cache of one set per
+     * segment.
+     */
+    private static List<String> sameSet(int count) {
+        int segment = ValidationCache.segmentOf(ValidationCache.keyOf("1+2+3=6"));
+        return EquationSpace.of(7).stream(false)
+                .filter(guess -> ValidationCache.segmentOf(ValidationCache.keyOf(guess)) == segment)
+                .limit(count)
+                .collect(Collectors.toList());
+    }
+
+    private void assertHit(String guess, boolean hit) {
+        long hits = cache.getHits();
+        cache.evaluate(guess);
+        assertEquals(hit, cache.getHits() == hits + 1, guess);
+    }
+}